@@ -0,0 +1,174 @@
+package http.connections;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends batches of requests, e.g. test data seeding, on a bounded pool of workers.
+ * Every host gets at most maxInFlightPerHost requests at the same time and at most requestsPerSecondPerHost new requests per second,
+ * also when one executor is shared by parallel batches. Requests wait for their host in a queue of the host and are handed to a worker
+ * only when the host has a free slot, so a busy host never occupies workers needed by requests to other hosts.
+ * Results are returned in order of requests
+ */
+public class BatchExecutor {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService scheduler;
+    private final int maxInFlightPerHost;
+    private final long intervalNanos;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * @param workers                  max amount of requests of all hosts sent at the same time
+     * @param maxInFlightPerHost       max amount of requests to one host sent at the same time
+     * @param requestsPerSecondPerHost max rate of requests to one host, 0 or less for no limit
+     */
+    public BatchExecutor(int workers, int maxInFlightPerHost, double requestsPerSecondPerHost) {
+        int size = Math.max(workers, 1);
+        this.maxInFlightPerHost = Math.max(maxInFlightPerHost, 1);
+        this.intervalNanos = requestsPerSecondPerHost > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecondPerHost) : 0;
+        this.executor = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> daemon(runnable, "automotion-batch-"));
+        this.executor.allowCoreThreadTimeOut(true);
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> daemon(runnable, "automotion-batch-scheduler-"));
+        scheduler.setKeepAliveTime(30, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        this.scheduler = scheduler;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Send all requests through the factory and wait for their results. Failed request does not stop the batch,
+     * its exception is available in the result
+     *
+     * @param factory
+     * @param requests
+     * @return List<RequestResult> in order of requests
+     * @throws InterruptedException if waiting thread is interrupted, requests that have not been sent yet are cancelled
+     */
+    public List<RequestResult> execute(ConnectionFactory factory, List<RequestSpec> requests) throws InterruptedException {
+        Host host = hosts.computeIfAbsent(host(factory.getUrl()), key -> new Host());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<CompletableFuture<RequestResult>> futures = new ArrayList<>(requests.size());
+        for (RequestSpec request : requests) {
+            CompletableFuture<RequestResult> future = new CompletableFuture<>();
+            futures.add(future);
+            host.submit(() -> {
+                if (cancelled.get()) {
+                    future.cancel(false);
+                } else {
+                    future.complete(send(factory, request));
+                }
+            });
+        }
+
+        List<RequestResult> results = new ArrayList<>(requests.size());
+        try {
+            for (CompletableFuture<RequestResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Request failed unexpectedly", e.getCause());
+        }
+        return results;
+    }
+
+    private static RequestResult send(ConnectionFactory factory, RequestSpec request) {
+        long start = System.nanoTime();
+        try {
+            Map.Entry<Integer, String> response = factory.send(request).entrySet().iterator().next();
+            return new RequestResult(request, response.getKey(), response.getValue(), null, millisSince(start));
+        } catch (IOException | RuntimeException e) {
+            return new RequestResult(request, -1, null, e, millisSince(start));
+        }
+    }
+
+    private static long millisSince(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static String host(String url) {
+        try {
+            String authority = URI.create(url).getAuthority();
+            return authority != null ? authority : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Requests of one host that wait for a free slot, and pacing of their start times
+     */
+    private final class Host {
+        private final Deque<Runnable> waiting = new ArrayDeque<>();
+        private int inFlight;
+        private long nextStart;
+
+        synchronized void submit(Runnable task) {
+            if (inFlight < maxInFlightPerHost) {
+                inFlight++;
+                dispatch(task);
+            } else {
+                waiting.add(task);
+            }
+        }
+
+        /**
+         * Hand task of a taken slot to a worker, delayed by the scheduler if the host rate requires it
+         */
+        private void dispatch(Runnable task) {
+            Runnable worker = () -> executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    release();
+                }
+            });
+            long delay = reserveStart();
+            if (delay > 0) {
+                scheduler.schedule(worker, delay, TimeUnit.NANOSECONDS);
+            } else {
+                worker.run();
+            }
+        }
+
+        private long reserveStart() {
+            if (intervalNanos == 0) {
+                return 0;
+            }
+            long now = System.nanoTime();
+            long start = nextStart - now > 0 ? nextStart : now;
+            nextStart = start + intervalNanos;
+            return start - now;
+        }
+
+        /**
+         * Pass the slot of a finished request to the next waiting request of the host
+         */
+        private synchronized void release() {
+            Runnable next = waiting.poll();
+            if (next != null) {
+                dispatch(next);
+            } else {
+                inFlight--;
+            }
+        }
+    }
+}
@@ -1,142 +1,115 @@
 package http.connections;
 
 import http.helpers.Helper;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.*;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLContexts;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.ByteArrayBody;
+import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.json.simple.JSONObject;
 
 import javax.net.ssl.SSLContext;
 import java.awt.*;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.file.Files;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-class ConnectionBuilder {
+abstract class ConnectionBuilder {
 
-    public ConnectionBuilder(String url) {
+    private static final int MAX_CONNECTIONS = 100;
+    static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+
+    /**
+     * @param url base URL of requests
+     */
+    ConnectionBuilder(String url) {
         this.url = url;
     }
 
     private String url;
 
-    public CloseableHttpResponse sendPOST(Map<Object, Object> map, String endpoint, String token, boolean withMediaFile) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
+    /**
+     * Client of the next request, looked up for every request so a closed client is never reused
+     *
+     * @return CloseableHttpClient shared by all requests to the URL, see {@link #createPooledClient()}
+     */
+    abstract CloseableHttpClient client();
 
-        System.out.println("\n\n------------------------------------------------------------");
-        System.out.println("POST request to: " + url + endpoint);
-        HttpPost request = new HttpPost(url + endpoint);
+    public CloseableHttpResponse sendPOST(Map<Object, Object> map, String endpoint, String token, boolean withMediaFile) throws IOException {
+        HttpPost request = createPOST(endpoint);
         request.addHeader("Authorization", "Basic " + token);
 //        request.addHeader("Authorization", token);
 //        request.addHeader("authorization", token);
         request.addHeader("Cookie", "AuthCookie=" + token);
-        String fileName = null;
-        File file = null;
-        if (withMediaFile) {
-            String boundary = "-------------" + System.currentTimeMillis();
-            fileName = (String) map.get("file");
-
-            try {
-                file = Helper.createFile(fileName);
-
-            } catch (AWTException e) {
-                e.printStackTrace();
-            }
-
-            MultipartEntityBuilder entity = MultipartEntityBuilder.create()
-                    .setMode(HttpMultipartMode.BROWSER_COMPATIBLE)
-                    .setBoundary(boundary);
-
-            if (fileName != null) {
-                entity.addPart("file", new ByteArrayBody(Files.readAllBytes(file.toPath()), fileName));
-            }
-
-            for (Map.Entry entry : map.entrySet()) {
-                entity.addPart(String.valueOf(entry.getKey()), new StringBody((String) entry.getValue()));
-            }
 
+        return executePOST(request, map, withMediaFile);
+    }
 
-            request.setEntity(entity.build());
-            request.setHeader("Content-type", "multipart/form-data; boundary=" + boundary);
-        } else {
-            StringEntity params = new StringEntity(JSONObject.toJSONString(map));
-            System.out.println("with data: " + JSONObject.toJSONString(map));
-            request.addHeader("Content-Type", "application/json;charset=UTF-8");
-            request.setEntity(params);
+    public CloseableHttpResponse sendPOST(Map<Object, Object> map, Map<String, String> headers, String endpoint, String token, boolean withMediaFile) throws IOException {
+        HttpPost request = createPOST(endpoint);
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            request.addHeader(entry.getKey(), entry.getValue());
         }
 
-        CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request);
+        return executePOST(request, map, withMediaFile);
+    }
 
-        if (file != null) {
-            file.delete();
+    /**
+     * Upload existing file as multipart form part "file" together with values of the map. File is streamed from disk
+     * while the request is sent and is not deleted
+     */
+    private CloseableHttpResponse sendPOST(Map<Object, Object> map, Map<String, String> headers, String endpoint, File file) throws IOException {
+        HttpPost request = createPOST(endpoint);
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            request.addHeader(entry.getKey(), entry.getValue());
         }
+        setMultipartEntity(request, map, file, file.getName());
 
-        return httpResponse;
+        return client().execute(request);
     }
 
-    public CloseableHttpResponse sendPOST(Map<Object, Object> map, Map<String, String> headers, String endpoint, String token, boolean withMediaFile) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
-
+    private HttpPost createPOST(String endpoint) {
         System.out.println("\n\n------------------------------------------------------------");
         System.out.println("POST request to: " + url + endpoint);
-        HttpPost request = new HttpPost(url + endpoint);
+        return new HttpPost(url + endpoint);
+    }
 
-        for (Map.Entry<String, String> entry : headers.entrySet()) {
-            request.addHeader(entry.getKey(), entry.getValue());
-        }
-        String fileName = null;
+    /**
+     * Send map as JSON or, with media file, as multipart form with a file generated for the name in "file" value of the map.
+     * Generated file is deleted after the request
+     */
+    private CloseableHttpResponse executePOST(HttpPost request, Map<Object, Object> map, boolean withMediaFile) throws IOException {
         File file = null;
         if (withMediaFile) {
-            String boundary = "-------------" + System.currentTimeMillis();
-            fileName = (String) map.get("file");
-
-            try {
-                file = Helper.createFile(fileName);
-
-            } catch (AWTException e) {
-                e.printStackTrace();
-            }
-
-            MultipartEntityBuilder entity = MultipartEntityBuilder.create()
-                    .setMode(HttpMultipartMode.BROWSER_COMPATIBLE)
-                    .setBoundary(boundary);
-
+            String fileName = (String) map.get("file");
             if (fileName != null) {
-                entity.addPart("file", new ByteArrayBody(Files.readAllBytes(file.toPath()), fileName));
-            }
-
-            for (Map.Entry entry : map.entrySet()) {
-                entity.addPart(String.valueOf(entry.getKey()), new StringBody((String) entry.getValue()));
+                try {
+                    file = Helper.createFile(fileName);
+                } catch (AWTException e) {
+                    e.printStackTrace();
+                }
             }
-
-
-            request.setEntity(entity.build());
-            request.setHeader("Content-type", "multipart/form-data; boundary=" + boundary);
+            setMultipartEntity(request, map, file, fileName);
         } else {
             StringEntity params = new StringEntity(JSONObject.toJSONString(map));
             System.out.println("with data: " + JSONObject.toJSONString(map));
@@ -144,16 +117,44 @@ class ConnectionBuilder {
             request.setEntity(params);
         }
 
-        CloseableHttpResponse httpResponse = (CloseableHttpResponse) httpClient.execute(request);
+        try {
+            return client().execute(request);
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * File is added as FileBody, so it is read from disk in small blocks while the request is written
+     * and memory does not depend on size of the file
+     */
+    private void setMultipartEntity(HttpPost request, Map<Object, Object> map, File file, String fileName) throws IOException {
+        String boundary = "-------------" + System.currentTimeMillis();
+        MultipartEntityBuilder entity = MultipartEntityBuilder.create()
+                .setMode(HttpMultipartMode.BROWSER_COMPATIBLE)
+                .setBoundary(boundary);
 
         if (file != null) {
-            file.delete();
+            entity.addPart("file", new FileBody(file, ContentType.DEFAULT_BINARY, fileName));
+        }
+
+        for (Map.Entry entry : map.entrySet()) {
+            entity.addPart(String.valueOf(entry.getKey()), new StringBody((String) entry.getValue()));
         }
 
-        return httpResponse;
+        request.setEntity(entity.build());
+        request.setHeader("Content-type", "multipart/form-data; boundary=" + boundary);
     }
 
-    private HttpClientBuilder getHttpClientBuilder() {
+    /**
+     * Thread safe client that keeps connections alive and reuses them for next requests, so TCP and TLS handshakes
+     * are done once per connection instead of once per request. Idle and expired connections are evicted in background
+     *
+     * @return CloseableHttpClient
+     */
+    static CloseableHttpClient createPooledClient() {
         SSLContext sslContext = null;
         try {
             sslContext = SSLContexts.custom().loadTrustMaterial(null, new TrustSelfSignedStrategy()).useTLS().build();
@@ -163,67 +164,68 @@ class ConnectionBuilder {
 
         SSLConnectionSocketFactory sslConnectionFactory = new SSLConnectionSocketFactory(sslContext, SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
 
-
-        HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
-
-        httpClientBuilder.setSSLSocketFactory(sslConnectionFactory);
         Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
                 .register("https", sslConnectionFactory)
                 .register("http", new PlainConnectionSocketFactory())
                 .build();
 
-        HttpClientConnectionManager ccm = new BasicHttpClientConnectionManager(registry);
-        httpClientBuilder.setConnectionManager(ccm);
-        return httpClientBuilder;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+
+        return HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? keepAlive : TimeUnit.SECONDS.toMillis(KEEP_ALIVE_SECONDS);
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS)
+                .build();
     }
 
     private CloseableHttpResponse sendGET(String endpoint, String token) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
-
         System.out.println("GET request to: " + url + endpoint);
         HttpGet request = new HttpGet(url + endpoint);
         //request.addHeader("Content-Type", "application/json;charset=UTF-8");
         request.addHeader("Authorization", "Bearer " + token);
 
 
-        return (CloseableHttpResponse) httpClient.execute(request);
+        return client().execute(request);
     }
 
     private CloseableHttpResponse sendGET(String endpoint, Map<String, String> headers) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
-
         System.out.println("GET request to: " + url + endpoint);
         HttpGet request = new HttpGet(url + endpoint);
         for (Map.Entry<String, String> entry : headers.entrySet()) {
             request.addHeader(entry.getKey(), entry.getValue());
         }
 
-        return (CloseableHttpResponse) httpClient.execute(request);
+        return client().execute(request);
     }
 
     private CloseableHttpResponse sendDELETE(String endpoint, String token) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
-
-        HttpClient httpClient = httpClientBuilder.build();
-
         System.out.println("DELETE request to: " + url + endpoint);
         HttpDelete request = new HttpDelete(url + endpoint);
         request.addHeader("Content-Type", "application/json;charset=UTF-8");
         request.addHeader("Authorization", "Bearer " + token);
 
 
-        return (CloseableHttpResponse) httpClient.execute(request);
+        return client().execute(request);
     }
 
-    private CloseableHttpResponse sendPUT(Map<String, String> map, String endpoint, String token) throws IOException {
-        HttpClientBuilder httpClientBuilder = getHttpClientBuilder();
+    private CloseableHttpResponse sendDELETE(String endpoint, Map<String, String> headers) throws IOException {
+        System.out.println("DELETE request to: " + url + endpoint);
+        HttpDelete request = new HttpDelete(url + endpoint);
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            request.addHeader(entry.getKey(), entry.getValue());
+        }
 
-        HttpClient httpClient = httpClientBuilder.build();
+        return client().execute(request);
+    }
 
+    private CloseableHttpResponse sendPUT(Map<String, String> map, String endpoint, String token) throws IOException {
         System.out.println("PUT request to: " + url + endpoint);
         HttpPut request = new HttpPut(url + endpoint);
         request.addHeader("Content-Type", "application/json;charset=UTF-8");
@@ -234,7 +236,23 @@ class ConnectionBuilder {
 
         request.setEntity(params);
 
-        return (CloseableHttpResponse) httpClient.execute(request);
+        return client().execute(request);
+    }
+
+    private CloseableHttpResponse sendPUT(Map<String, String> map, Map<String, String> headers, String endpoint) throws IOException {
+        System.out.println("PUT request to: " + url + endpoint);
+        HttpPut request = new HttpPut(url + endpoint);
+        request.addHeader("Content-Type", "application/json;charset=UTF-8");
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            request.addHeader(entry.getKey(), entry.getValue());
+        }
+
+        StringEntity params = new StringEntity(JSONObject.toJSONString(map));
+        System.out.println("with data: " + JSONObject.toJSONString(map));
+
+        request.setEntity(params);
+
+        return client().execute(request);
     }
 
     protected Map<Integer, String> getPOST(Map map, String endpoint, String token, boolean withMediaFile) throws IOException {
@@ -242,13 +260,13 @@ class ConnectionBuilder {
 
         CloseableHttpResponse response = sendPOST(map, endpoint, token, withMediaFile);
 
-        StringBuffer body = getBodyResponse(response);
+        String body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        mapResult.put(response.getStatusLine().getStatusCode(), body);
 
         System.out.println("\n\nResponse:");
         System.out.println(response.getStatusLine());
-        System.out.println(body.toString());
+        System.out.println(body);
 
         return mapResult;
     }
@@ -258,13 +276,29 @@ class ConnectionBuilder {
 
         CloseableHttpResponse response = sendPOST(map, headers, endpoint, token, withMediaFile);
 
-        StringBuffer body = getBodyResponse(response);
+        String body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        mapResult.put(response.getStatusLine().getStatusCode(), body);
 
         System.out.println("\n\nResponse:");
         System.out.println(response.getStatusLine());
-        System.out.println(body.toString());
+        System.out.println(body);
+
+        return mapResult;
+    }
+
+    protected Map<Integer, String> getPOST(Map map, Map headers, String endpoint, File file) throws IOException {
+        Map<Integer, String> mapResult = new HashMap<Integer, String>();
+
+        CloseableHttpResponse response = sendPOST(map, headers, endpoint, file);
+
+        String body = getBodyResponse(response);
+
+        mapResult.put(response.getStatusLine().getStatusCode(), body);
+
+        System.out.println("\n\nResponse:");
+        System.out.println(response.getStatusLine());
+        System.out.println(body);
 
         return mapResult;
     }
@@ -274,9 +308,9 @@ class ConnectionBuilder {
 
         CloseableHttpResponse response = sendGET(endpoint, token);
 
-        StringBuffer body = getBodyResponse(response);
+        String body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        mapResult.put(response.getStatusLine().getStatusCode(), body);
 
         return mapResult;
     }
@@ -286,9 +320,9 @@ class ConnectionBuilder {
 
         CloseableHttpResponse response = sendGET(endpoint, headers);
 
-        StringBuffer body = getBodyResponse(response);
+        String body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        mapResult.put(response.getStatusLine().getStatusCode(), body);
 
         return mapResult;
     }
@@ -298,9 +332,9 @@ class ConnectionBuilder {
 
         CloseableHttpResponse response = sendPUT(map, endpoint, token);
 
-        StringBuffer body = getBodyResponse(response);
+        String body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        mapResult.put(response.getStatusLine().getStatusCode(), body);
 
         return mapResult;
     }
@@ -310,27 +344,41 @@ class ConnectionBuilder {
 
         CloseableHttpResponse response = sendDELETE(endpoint, token);
 
-        StringBuffer body = getBodyResponse(response);
+        String body = getBodyResponse(response);
 
-        mapResult.put(response.getStatusLine().getStatusCode(), body.toString());
+        mapResult.put(response.getStatusLine().getStatusCode(), body);
 
         return mapResult;
     }
 
-    private StringBuffer getBodyResponse(CloseableHttpResponse response) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(
-                response.getEntity().getContent()));
-
-        String inputLine;
-
-        StringBuffer body = new StringBuffer();
+    String getUrl() {
+        return url;
+    }
 
-        while ((inputLine = reader.readLine()) != null) {
-            body.append(inputLine);
+    /**
+     * Send request described by the spec with its headers. Response has to be closed by the caller
+     */
+    CloseableHttpResponse execute(RequestSpec request) throws IOException {
+        switch (request.getMethod()) {
+            case GET:
+                return sendGET(request.getEndpoint(), request.getHeaders());
+            case POST:
+                return sendPOST(request.getBody(), request.getHeaders(), request.getEndpoint(), null, false);
+            case PUT:
+                return sendPUT(request.getBody(), request.getHeaders(), request.getEndpoint());
+            case DELETE:
+                return sendDELETE(request.getEndpoint(), request.getHeaders());
+            default:
+                throw new IllegalArgumentException("Unsupported method " + request.getMethod());
         }
-        reader.close();
+    }
 
-        response.close();
-        return body;
+    /**
+     * Read whole body with charset of the response, keeping line separators. Closes the response
+     */
+    private String getBodyResponse(CloseableHttpResponse response) throws IOException {
+        try (StreamingResponse streamingResponse = new StreamingResponse(response)) {
+            return streamingResponse.getBodyAsString();
+        }
     }
 }
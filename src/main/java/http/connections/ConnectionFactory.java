@@ -1,44 +1,203 @@
 package http.connections;
 
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.log4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConnectionFactory extends ConnectionBuilder {
 
-    private String url;
+    private final static Logger LOG = Logger.getLogger(ConnectionFactory.class);
 
+    private static final Map<String, CloseableHttpClient> CLIENTS = new ConcurrentHashMap<>();
+    private static final Map<String, ThreadPoolExecutor> ASYNC_EXECUTORS = new ConcurrentHashMap<>();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /**
+     * Factories of the same base URL share one pooled client, so connections are reused across factories and threads
+     *
+     * @param url
+     */
     public ConnectionFactory(String url) {
         super(url);
-        this.url = url;
     }
 
+    /**
+     * Limit async requests to the base URL, e.g. once in the suite setup before the data is seeded.
+     * Limit is shared by async methods of all factories of the URL, other requests wait in queue. Without it
+     * {@link #MAX_CONNECTIONS_PER_ROUTE} requests are sent at the same time, values above it are reduced to it,
+     * because more requests could only wait for a pooled connection
+     *
+     * @param url
+     * @param asyncConcurrency max amount of async requests to the base URL sent at the same time
+     * @throws IllegalStateException if async requests to the URL were already sent or it has a different limit
+     */
+    public static void setAsyncConcurrency(String url, int asyncConcurrency) {
+        int size = Math.min(Math.max(asyncConcurrency, 1), MAX_CONNECTIONS_PER_ROUTE);
+        ThreadPoolExecutor executor = ASYNC_EXECUTORS.computeIfAbsent(url, key -> createAsyncExecutor(size));
+        if (executor.getMaximumPoolSize() != size) {
+            throw new IllegalStateException("Async requests to " + url + " are already limited to " + executor.getMaximumPoolSize());
+        }
+    }
+
+    /**
+     * Close pooled clients of all base URLs and their connections, e.g. at the end of the suite.
+     * Next request of any factory, also of one created before, creates a new client
+     */
+    public static void closeConnections() {
+        List<String> urls = new ArrayList<>(CLIENTS.keySet());
+        for (String url : urls) {
+            CloseableHttpClient client = CLIENTS.remove(url);
+            if (client != null) {
+                try {
+                    client.close();
+                } catch (IOException e) {
+                    LOG.error("Cannot close connections to " + url + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    CloseableHttpClient client() {
+        return CLIENTS.computeIfAbsent(getUrl(), key -> createPooledClient());
+    }
+
+    /**
+     * Response has to be closed by the caller to return its connection to the pool
+     */
     public CloseableHttpResponse sendPostWithFullResponse(Map map, String endpoint, String token, boolean withMediaFile) throws IOException {
-        return new ConnectionBuilder(url).sendPOST(map, endpoint, token, withMediaFile);
+        return sendPOST(map, endpoint, token, withMediaFile);
     }
 
     public Map<Integer, String> sendPost(Map map, String endpoint, String token, boolean withMediaFile) throws IOException {
-        return new ConnectionBuilder(url).getPOST(map, endpoint, token, withMediaFile);
+        return getPOST(map, endpoint, token, withMediaFile);
     }
 
     public Map<Integer, String> sendPost(Map map, Map headers, String endpoint, String token, boolean withMediaFile) throws IOException {
-        return new ConnectionBuilder(url).getPOST(map, headers, endpoint, token, withMediaFile);
+        return getPOST(map, headers, endpoint, token, withMediaFile);
+    }
+
+    /**
+     * Upload existing file, e.g. a large media fixture, as multipart form part "file". File is streamed from disk and kept
+     *
+     * @param map     other form values
+     * @param headers
+     * @param endpoint
+     * @param file
+     * @return Map<Integer, String> status code and body of the response
+     * @throws IOException
+     */
+    public Map<Integer, String> sendPostWithFile(Map map, Map headers, String endpoint, File file) throws IOException {
+        return getPOST(map, headers, endpoint, file);
     }
 
     public Map<Integer, String> sendGet(String endpoint, String token) throws IOException {
-        return new ConnectionBuilder(url).getGET(endpoint, token);
+        return getGET(endpoint, token);
     }
 
     public Map<Integer, String> sendGet(String endpoint, Map headers) throws IOException {
-        return new ConnectionBuilder(url).getGET(endpoint, headers);
+        return getGET(endpoint, headers);
     }
 
     public Map<Integer, String> sendPut(Map map, String endpoint, String token) throws IOException {
-        return new ConnectionBuilder(url).getPUT(map, endpoint, token);
+        return getPUT(map, endpoint, token);
     }
 
     public Map<Integer, String> sendDelete(String endpoint, String token) throws IOException {
-        return new ConnectionBuilder(url).getDELETE(endpoint, token);
+        return getDELETE(endpoint, token);
+    }
+
+    /**
+     * Send request described by the spec with its headers
+     *
+     * @param request
+     * @return Map<Integer, String> status code and body of the response
+     * @throws IOException
+     */
+    public Map<Integer, String> send(RequestSpec request) throws IOException {
+        CloseableHttpResponse response = execute(request);
+        try (StreamingResponse streamingResponse = new StreamingResponse(response)) {
+            return Collections.singletonMap(streamingResponse.getStatusCode(), streamingResponse.getBodyAsString());
+        }
+    }
+
+    /**
+     * Send request described by the spec and return response with not yet read body, e.g. for large exports
+     *
+     * @param request
+     * @return StreamingResponse which has to be closed by the caller
+     * @throws IOException
+     */
+    public StreamingResponse stream(RequestSpec request) throws IOException {
+        return new StreamingResponse(execute(request));
+    }
+
+    public CompletableFuture<Map<Integer, String>> sendPostAsync(Map map, String endpoint, String token, boolean withMediaFile) {
+        return async(() -> getPOST(map, endpoint, token, withMediaFile));
+    }
+
+    public CompletableFuture<Map<Integer, String>> sendPostAsync(Map map, Map headers, String endpoint, String token, boolean withMediaFile) {
+        return async(() -> getPOST(map, headers, endpoint, token, withMediaFile));
+    }
+
+    public CompletableFuture<Map<Integer, String>> sendGetAsync(String endpoint, String token) {
+        return async(() -> getGET(endpoint, token));
+    }
+
+    public CompletableFuture<Map<Integer, String>> sendGetAsync(String endpoint, Map headers) {
+        return async(() -> getGET(endpoint, headers));
+    }
+
+    public CompletableFuture<Map<Integer, String>> sendPutAsync(Map map, String endpoint, String token) {
+        return async(() -> getPUT(map, endpoint, token));
+    }
+
+    public CompletableFuture<Map<Integer, String>> sendDeleteAsync(String endpoint, String token) {
+        return async(() -> getDELETE(endpoint, token));
+    }
+
+    /**
+     * Send request on a worker of the base URL. Future is completed with the response or with the exception of the request
+     */
+    private <T> CompletableFuture<T> async(Request<T> request) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ASYNC_EXECUTORS.computeIfAbsent(getUrl(), key -> createAsyncExecutor(MAX_CONNECTIONS_PER_ROUTE)).execute(() -> {
+            try {
+                future.complete(request.send());
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Workers are daemon threads which stop when idle, so executor does not need to be shut down
+     */
+    private static ThreadPoolExecutor createAsyncExecutor(int size) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "automotion-http-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    interface Request<T> {
+        T send() throws IOException;
     }
 }
@@ -0,0 +1,61 @@
+package http.connections;
+
+/**
+ * Result of one request of a batch
+ */
+public class RequestResult {
+
+    private final RequestSpec request;
+    private final int statusCode;
+    private final String body;
+    private final Exception error;
+    private final long timeExecution;
+
+    RequestResult(RequestSpec request, int statusCode, String body, Exception error, long timeExecution) {
+        this.request = request;
+        this.statusCode = statusCode;
+        this.body = body;
+        this.error = error;
+        this.timeExecution = timeExecution;
+    }
+
+    public RequestSpec getRequest() {
+        return request;
+    }
+
+    /**
+     * @return int status code of the response, -1 if request failed
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * @return Exception that prevented the request from completing, null if response was received
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null && statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Time from sending the request until the whole response was read in milliseconds, without time spent waiting for the limits
+     *
+     * @return long
+     */
+    public long getTimeExecution() {
+        return timeExecution;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s in %d ms", request, error != null ? error : statusCode, timeExecution);
+    }
+}
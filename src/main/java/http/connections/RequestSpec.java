@@ -0,0 +1,78 @@
+package http.connections;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Description of one request of a batch, see {@link BatchExecutor}
+ */
+public class RequestSpec {
+
+    public enum Method {
+        GET, POST, PUT, DELETE
+    }
+
+    private final Method method;
+    private final String endpoint;
+    private final Map body;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    /**
+     * @param method
+     * @param endpoint path relative to the base URL of the factory
+     * @param body     JSON body of POST and PUT requests, ignored by GET and DELETE
+     */
+    public RequestSpec(Method method, String endpoint, Map body) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.body = body != null ? body : Collections.emptyMap();
+    }
+
+    public static RequestSpec get(String endpoint) {
+        return new RequestSpec(Method.GET, endpoint, null);
+    }
+
+    public static RequestSpec post(String endpoint, Map body) {
+        return new RequestSpec(Method.POST, endpoint, body);
+    }
+
+    public static RequestSpec put(String endpoint, Map body) {
+        return new RequestSpec(Method.PUT, endpoint, body);
+    }
+
+    public static RequestSpec delete(String endpoint) {
+        return new RequestSpec(Method.DELETE, endpoint, null);
+    }
+
+    public RequestSpec withHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public RequestSpec withHeaders(Map<String, String> headers) {
+        this.headers.putAll(headers);
+        return this;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Map getBody() {
+        return body;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + endpoint;
+    }
+}
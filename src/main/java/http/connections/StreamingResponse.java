@@ -0,0 +1,125 @@
+package http.connections;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Response whose body is read from the connection while it is consumed, instead of being loaded into a String first.
+ * Has to be closed to release the connection, e.g. with try-with-resources
+ */
+public class StreamingResponse implements Closeable {
+
+    static final int BUFFER_SIZE = 8192;
+    private static final int MAX_PRESIZE = 1 << 20;
+
+    private final CloseableHttpResponse response;
+
+    StreamingResponse(CloseableHttpResponse response) {
+        this.response = response;
+    }
+
+    public int getStatusCode() {
+        return response.getStatusLine().getStatusCode();
+    }
+
+    /**
+     * @param name case insensitive name of the header
+     * @return String first value of the header, null if response has no such header
+     */
+    public String getHeader(String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    /**
+     * @return Map<String, List<String>> all values of every header, names are case insensitive
+     */
+    public Map<String, List<String>> getHeaders() {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Header header : response.getAllHeaders()) {
+            headers.computeIfAbsent(header.getName(), key -> new ArrayList<>()).add(header.getValue());
+        }
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Charset from Content-Type of the response, UTF-8 if it is not specified
+     *
+     * @return Charset
+     */
+    public Charset getCharset() {
+        HttpEntity entity = response.getEntity();
+        Charset charset = entity != null ? ContentType.getOrDefault(entity).getCharset() : null;
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * @return InputStream raw body, empty stream if response has no body
+     * @throws IOException
+     */
+    public InputStream getBody() throws IOException {
+        HttpEntity entity = response.getEntity();
+        return entity != null ? entity.getContent() : new ByteArrayInputStream(new byte[0]);
+    }
+
+    /**
+     * @return Reader body decoded with {@link #getCharset()}
+     * @throws IOException
+     */
+    public Reader getReader() throws IOException {
+        return new InputStreamReader(getBody(), getCharset());
+    }
+
+    /**
+     * Read the body into one reused buffer and pass every filled part of it to the consumer,
+     * so memory used for the body does not depend on its size
+     *
+     * @param consumer
+     * @throws IOException
+     */
+    public void readBody(ChunkConsumer consumer) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        try (Reader reader = getReader()) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                consumer.accept(buffer, read);
+            }
+        }
+    }
+
+    /**
+     * @return String whole body, line separators are kept
+     * @throws IOException
+     */
+    public String getBodyAsString() throws IOException {
+        HttpEntity entity = response.getEntity();
+        long length = entity != null ? entity.getContentLength() : 0;
+        StringBuilder body = new StringBuilder(length > 0 ? (int) Math.min(length, MAX_PRESIZE) : 256);
+        readBody((buffer, read) -> body.append(buffer, 0, read));
+        return body.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        response.close();
+    }
+
+    public interface ChunkConsumer {
+        /**
+         * @param buffer buffer reused for the next chunk, copy content that has to be kept
+         * @param length amount of chars read into the buffer
+         */
+        void accept(char[] buffer, int length) throws IOException;
+    }
+}
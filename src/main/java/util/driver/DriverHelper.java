@@ -11,6 +11,7 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import util.validator.ViewportMetrics;
 
 import java.io.File;
 import java.util.List;
@@ -161,6 +162,7 @@ public class DriverHelper {
             } else {
                 jse.executeScript("document.body.style.zoom = '" + zoomPercent + "%'");
             }
+            ViewportMetrics.invalidate(driver);
         }
     }
 
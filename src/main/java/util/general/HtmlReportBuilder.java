@@ -1,139 +1,219 @@
 package util.general;
 
-import com.webfirmframework.wffweb.tag.html.*;
-import com.webfirmframework.wffweb.tag.html.attribute.Alt;
-import com.webfirmframework.wffweb.tag.html.attribute.Src;
-import com.webfirmframework.wffweb.tag.html.attribute.global.Style;
-import com.webfirmframework.wffweb.tag.html.images.Img;
-import com.webfirmframework.wffweb.tag.html.lists.Li;
-import com.webfirmframework.wffweb.tag.html.lists.Ol;
-import com.webfirmframework.wffweb.tag.html.metainfo.Head;
-import com.webfirmframework.wffweb.tag.html.stylesandsemantics.Div;
-import com.webfirmframework.wffweb.tag.htmlwff.NoTag;
 import org.apache.log4j.Logger;
-import org.jetbrains.annotations.NotNull;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import util.validator.FileResultSink;
+import util.validator.ResultSink;
+import util.validator.ScreenshotPipeline;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 import static util.validator.Constants.*;
 
 
 public class HtmlReportBuilder {
 
+    private static final long SCREENSHOT_TIMEOUT_SECONDS = 120;
+
     private final Logger LOG = Logger.getLogger(HtmlReportBuilder.class);
     private List<String> jsonFiles;
-
+    private ResultSink sink;
+
+    /**
+     * Build report of JSON files written by validations. Waits for screenshots of all validations, because the files
+     * can not be matched with their screenshots
+     *
+     * @param reportName
+     * @param jsonFiles
+     */
     public void buildReport(String reportName, List<String> jsonFiles) throws IOException, ParseException, InterruptedException {
-        this.jsonFiles = jsonFiles;
-        writeReport(reportName);
+        if (!ScreenshotPipeline.awaitCompletion(SCREENSHOT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOG.warn("Not all screenshots were written in " + SCREENSHOT_TIMEOUT_SECONDS + " seconds, report may miss some of them");
+        }
+        buildReport(reportName, jsonFiles, new FileResultSink(new File(TARGET_AUTOMOTION_JSON)));
     }
 
     public void buildReport(List<String> jsonFiles) throws IOException, ParseException, InterruptedException {
-        this.jsonFiles = jsonFiles;
-        writeReport("result");
+        buildReport("result", jsonFiles);
     }
 
-    private void writeReport(String reportName) throws InterruptedException, IOException, ParseException {
-        Thread.sleep(3000);
-
-        Html html = buildHtml();
+    /**
+     * Build report of results in the sink. Screenshots of the results have to be written already,
+     * validators wait for screenshots of their collector before they build the report
+     *
+     * @param reportName
+     * @param references references of the results in the sink
+     * @param sink       storage the results were written to, results are removed from it once reported
+     */
+    public void buildReport(String reportName, List<String> references, ResultSink sink) throws IOException, ParseException, InterruptedException {
+        this.jsonFiles = references;
+        this.sink = sink;
+        writeReport(reportName);
+    }
 
-        long ms = System.currentTimeMillis();
+    private void writeReport(String reportName) {
+        File report = new File(TARGET_AUTOMOTION + reportName.replace(" ", "_") + "-" + System.currentTimeMillis() + ".html");
+        File folder = report.getParentFile();
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            LOG.error("Cannot create html report: folder " + folder + " cannot be created");
+            return;
+        }
 
-        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(TARGET_AUTOMOTION + reportName.replace(" ", "_") + "-" + ms + ".html"), StandardCharsets.UTF_8))) {
-            writer.write(html.toHtmlString());
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(report), StandardCharsets.UTF_8))) {
+            writeHtml(writer);
         } catch (IOException ex) {
             LOG.error("Cannot create html report: " + ex.getMessage());
         }
+    }
+
+    /**
+     * Write report section by section. Every result is parsed, written and released before the next one is read,
+     * so memory used by the report does not depend on amount of results
+     */
+    private void writeHtml(Writer writer) throws IOException {
+        writer.write("<!DOCTYPE html>\n<html style=\"background-color: rgb(255,250,250)\">\n<head><meta charset=\"UTF-8\"><title>Automotion report</title></head>\n<body>\n");
+        writer.write("<div style=\"width: 100%; background-color: rgb(0,191,255); color: white; padding: 10px\"><h1>");
+        writer.write(escape(String.format("Results from: %s", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()))));
+        writer.write("</h1></div>\n");
+
+        sink.read(jsonFiles, result -> writeScenario(writer, result));
+        writer.write("</body>\n</html>\n");
+    }
 
-        try {
-            File file = new File(TARGET_AUTOMOTION + "result" + ms + ".html");
-            if (file.getParentFile().mkdirs()) {
-                if (file.createNewFile()) {
-                    BufferedWriter writer = new BufferedWriter(new FileWriter(file));
-                    writer.write(html.toHtmlString());
-                    writer.close();
+    private void writeScenario(Writer writer, JSONObject jsonObject) throws IOException {
+        writer.write("<h1 style=\"color: rgb(47,79,79); margin-top: 50px\">");
+        writer.write(escape(String.format("Scenario: \"%s\"", jsonObject.get(SCENARIO))));
+        writer.write("</h1>\n<h2 style=\"color: rgb(0,139,139)\">");
+        writer.write(escape(String.format("Element: \"%s\"", jsonObject.get(ELEMENT_NAME))));
+        writer.write("</h2>\n<h3 style=\"color: rgb(255,69,0)\">Failures:</h3>\n<ol>\n");
+        JSONArray details = (JSONArray) jsonObject.get(DETAILS);
+        if (details != null) {
+            for (Object obj : details) {
+                JSONObject reason = (JSONObject) ((JSONObject) obj).get(REASON);
+                writer.write("<li>");
+                writer.write(escape((String) reason.get(MESSAGE)));
+                writer.write("</li>\n");
+            }
+        }
+        writer.write("</ol>\n<h4 style=\"color: rgb(105,105,105)\">");
+        writer.write(escape(String.format("Time execution: %s", jsonObject.get(TIME_EXECUTION))));
+        writer.write("</h4>\n");
+
+        if (jsonObject.get(OVERLAY) != null) {
+            double imageWidth = Math.max(((Number) jsonObject.get(IMAGE_WIDTH)).doubleValue(), 1);
+            double imageHeight = Math.max(((Number) jsonObject.get(IMAGE_HEIGHT)).doubleValue(), 1);
+            writer.write("<div style=\"position: relative; width: 96%; margin-left:2%\">");
+            writeImage(writer, jsonObject.get(SCREENSHOT), "screenshot", "width: 100%; display: block");
+            for (Object item : (JSONArray) jsonObject.get(OVERLAY)) {
+                JSONObject rect = (JSONObject) item;
+                if (LINE_VERTICAL.equals(rect.get(LINE))) {
+                    writer.write(String.format(Locale.ROOT,
+                            "<div style=\"position: absolute; border-left: 1px dashed %s; left: %.3f%%; top: 0; height: 100%%\"></div>",
+                            escape(String.valueOf(rect.get(COLOR))),
+                            100 * ((Number) rect.get(X)).doubleValue() / imageWidth));
+                    continue;
+                }
+                if (LINE_HORIZONTAL.equals(rect.get(LINE))) {
+                    writer.write(String.format(Locale.ROOT,
+                            "<div style=\"position: absolute; border-top: 1px dashed %s; top: %.3f%%; left: 0; width: 100%%\"></div>",
+                            escape(String.valueOf(rect.get(COLOR))),
+                            100 * ((Number) rect.get(Y)).doubleValue() / imageHeight));
+                    continue;
                 }
+                writer.write(String.format(Locale.ROOT,
+                        "<div style=\"position: absolute; box-sizing: border-box; border: 2px solid %s; left: %.3f%%; top: %.3f%%; width: %.3f%%; height: %.3f%%\"></div>",
+                        escape(String.valueOf(rect.get(COLOR))),
+                        100 * ((Number) rect.get(X)).doubleValue() / imageWidth,
+                        100 * ((Number) rect.get(Y)).doubleValue() / imageHeight,
+                        100 * ((Number) rect.get(WIDTH)).doubleValue() / imageWidth,
+                        100 * ((Number) rect.get(HEIGHT)).doubleValue() / imageHeight));
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            writer.write("</div>\n");
+        } else if (jsonObject.get(SCREENSHOT_THUMBNAIL) != null) {
+            writer.write("<p>");
+            writeImage(writer, jsonObject.get(SCREENSHOT), "screenshot", "max-width: 96%; margin-left:2%");
+            writer.write("</p>\n<p style=\"margin-left:2%\">");
+            if (jsonObject.get(SCREENSHOT_FULL) != null) {
+                writer.write("<a href=\"");
+                writer.write(escape("img/" + jsonObject.get(SCREENSHOT_FULL)));
+                writer.write("\" target=\"_blank\">");
+                writeImage(writer, jsonObject.get(SCREENSHOT_THUMBNAIL), "full screenshot", null);
+                writer.write("</a>");
+            } else {
+                writeImage(writer, jsonObject.get(SCREENSHOT_THUMBNAIL), "page", null);
+            }
+            writer.write("</p>\n");
+        } else if (jsonObject.get(SCREENSHOT) != null) {
+            writer.write("<p>");
+            writeImage(writer, jsonObject.get(SCREENSHOT), "screenshot", "width: 96%; margin-left:2%");
+            writer.write("</p>\n");
         }
     }
 
-    @NotNull
-    private Html buildHtml() throws IOException, ParseException {
-        return new Html(null, new Style("background-color: rgb(255,250,250)")) {{
-            new Head(this) {{
-                new TitleTag(this) {{
-                    new NoTag(this, "Automotion report");
-                }};
-            }};
-            new Body(this) {{
-
-                new Div(this, new Style("width: 100%; background-color: rgb(0,191,255); color: white; padding: 10px")) {{
-                    new H1(this) {{
-                        new NoTag(this, String.format("Results from: %s", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date())));
-                    }};
-                }};
-                File folder = new File(TARGET_AUTOMOTION_JSON);
-                File[] listOfFiles = folder.listFiles();
-
-                if (listOfFiles != null) {
-                    for (File file : listOfFiles) {
-                        if (file.isFile() && jsonFiles.contains(file.getName())) {
-                            JSONParser parser = new JSONParser();
-                            Object obj = parser.parse(new FileReader(file));
-
-                            JSONObject jsonObject = (JSONObject) obj;
-                            JSONArray details = (JSONArray) jsonObject.get(DETAILS);
-                            new H1(this,
-                                    new Style("color: rgb(47,79,79); margin-top: 50px")) {{
-                                new NoTag(this, String.format("Scenario: \"%s\"", jsonObject.get(SCENARIO)));
-                            }};
-                            new H2(this,
-                                    new Style("color: rgb(0,139,139)")) {{
-                                new NoTag(this, String.format("Element: \"%s\"", jsonObject.get(ELEMENT_NAME)));
-                            }};
-                            new H3(this,
-                                    new Style("color: rgb(255,69,0)")) {{
-                                new NoTag(this, "Failures:");
-                            }};
-                            new Ol(this) {{
-                                for (Object details : details) {
-                                    JSONObject det = (JSONObject) details;
-                                    JSONObject reason = (JSONObject) det.get(REASON);
-                                    String numE = (String) reason.get(MESSAGE);
-
-                                    new Li(this) {{
-                                        new NoTag(this, numE);
-                                    }};
-                                }
-                            }};
-                            new H4(this,
-                                    new Style("color: rgb(105,105,105)")) {{
-                                new NoTag(this, String.format("Time execution: %s", jsonObject.get(TIME_EXECUTION)));
-                            }};
-                            new P(this) {{
-                                new Img(this,
-                                        new Src(String.format("img/%s", jsonObject.get(SCREENSHOT))),
-                                        new Alt("screenshot"),
-                                        new Style("width: 96%; margin-left:2%"));
-                            }};
-
-                            jsonFiles.remove(file.getName());
-                            while (!file.delete()) ;
-                        }
-                    }
+    private static void writeImage(Writer writer, Object name, String alt, String style) throws IOException {
+        writer.write("<img src=\"");
+        writer.write(escape("img/" + name));
+        writer.write("\" alt=\"");
+        writer.write(alt);
+        writer.write("\" loading=\"lazy\"");
+        if (style != null) {
+            writer.write(" style=\"");
+            writer.write(style);
+            writer.write("\"");
+        }
+        writer.write(">");
+    }
+
+    /**
+     * Escape text for HTML content and attribute values
+     *
+     * @param text
+     * @return String
+     */
+    static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder result = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\'':
+                    replacement = "&#39;";
+                    break;
+                default:
+                    replacement = null;
+            }
+            if (replacement != null) {
+                if (result == null) {
+                    result = new StringBuilder(text.length() + 16).append(text, 0, i);
                 }
-            }};
-        }};
+                result.append(replacement);
+            } else if (result != null) {
+                result.append(c);
+            }
+        }
+        return result != null ? result.toString() : text;
     }
 }
@@ -0,0 +1,208 @@
+package util.validator;
+
+import http.helpers.Helper;
+import org.apache.log4j.Logger;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Appends encoded results to one file. Results are buffered in memory and appended in batches,
+ * so a suite with thousands of validations produces a few files and writes instead of a file per result.
+ * Position of every result is indexed in memory, so the report reads exactly the results of this run with one positional read each
+ * without scanning the file. File is deleted when all its results have been read; next results go to a new file
+ */
+abstract class AppendOnlyResultSink implements ResultSink {
+
+    private final static Logger LOG = Logger.getLogger(AppendOnlyResultSink.class);
+    private static final char SEPARATOR = '#';
+
+    private final File folder;
+    private final int batchSize;
+    private final String extension;
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    private final Map<String, long[]> index = new HashMap<>();
+    private final Map<String, int[]> files = new HashMap<>();
+    private int batched;
+    private String fileName;
+    private int records;
+    private long size;
+
+    /**
+     * @param folder    folder of result files, created once here
+     * @param batchSize amount of results buffered before they are appended to the file
+     * @param extension extension of result files
+     */
+    AppendOnlyResultSink(File folder, int batchSize, String extension) {
+        this.folder = folder;
+        this.batchSize = Math.max(batchSize, 1);
+        this.extension = extension;
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            LOG.error("Cannot create folder for results: " + folder);
+        }
+        rotate();
+    }
+
+    /**
+     * @param result
+     * @return bytes of one record appended to the file
+     */
+    abstract byte[] encode(JSONObject result);
+
+    /**
+     * @param record bytes of one record as returned by {@link #encode(JSONObject)}
+     * @return JSONObject
+     * @throws ParseException if the record is corrupted
+     */
+    abstract JSONObject decode(ByteBuffer record) throws ParseException;
+
+    /**
+     * @return bytes written at the beginning of every file
+     */
+    byte[] header() {
+        return new byte[0];
+    }
+
+    @Override
+    public synchronized String write(String name, JSONObject result) {
+        if (size == 0) {
+            byte[] header = header();
+            batch.write(header, 0, header.length);
+            size = header.length;
+        }
+        byte[] record = encode(result);
+        batch.write(record, 0, record.length);
+        String reference = fileName + SEPARATOR + records;
+        index.put(reference, new long[]{size, record.length});
+        size += record.length;
+        records++;
+        files.get(fileName)[0] = records;
+        if (++batched >= batchSize) {
+            flush();
+        }
+        return reference;
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (batch.size() == 0) {
+            return;
+        }
+        try {
+            Files.write(new File(folder, fileName).toPath(), batch.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOG.error("Cannot write results to " + fileName + ": " + e.getMessage());
+        }
+        batch.reset();
+        batched = 0;
+    }
+
+    @Override
+    public synchronized void read(List<String> references, ResultConsumer consumer) throws IOException {
+        flush();
+        Map<String, FileChannel> channels = new HashMap<>();
+        Map<String, Integer> consumed = new LinkedHashMap<>();
+        try {
+            for (String reference : references) {
+                long[] position = index.remove(reference);
+                if (position == null) {
+                    LOG.warn("Result " + reference + " was not written by this sink");
+                    continue;
+                }
+                String name = reference.substring(0, reference.lastIndexOf(SEPARATOR));
+                consumed.merge(name, 1, Integer::sum);
+                FileChannel channel = channel(channels, name);
+                if (channel == null) {
+                    continue;
+                }
+                ByteBuffer record = readRecord(channel, position[0], (int) position[1]);
+                JSONObject result;
+                try {
+                    result = decode(record);
+                } catch (ParseException | RuntimeException e) {
+                    LOG.error("Cannot read result of " + name + " at " + position[0] + ": " + e);
+                    continue;
+                }
+                consumer.accept(result);
+            }
+        } finally {
+            for (Map.Entry<String, FileChannel> entry : channels.entrySet()) {
+                if (entry.getValue() != null) {
+                    try {
+                        entry.getValue().close();
+                    } catch (IOException e) {
+                        LOG.error("Cannot close results " + entry.getKey() + ": " + e.getMessage());
+                    }
+                }
+            }
+            for (Map.Entry<String, Integer> entry : consumed.entrySet()) {
+                release(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Channel of the result file, opened once per read so results of interleaved files are read in order of references.
+     * Null if the file cannot be opened
+     */
+    private FileChannel channel(Map<String, FileChannel> channels, String name) {
+        if (!channels.containsKey(name)) {
+            FileChannel channel = null;
+            try {
+                channel = FileChannel.open(new File(folder, name).toPath(), StandardOpenOption.READ);
+            } catch (IOException e) {
+                LOG.error("Cannot read results " + name + ": " + e.getMessage());
+            }
+            channels.put(name, channel);
+        }
+        return channels.get(name);
+    }
+
+    /**
+     * Positional read of one record. Files are not memory mapped here: mapping keeps the file locked on Windows until
+     * the buffer is garbage collected, so the file could not be deleted after the report
+     */
+    private static ByteBuffer readRecord(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Count read results of the file and delete file when all results written to it were read
+     */
+    private void release(String name, int consumed) {
+        int[] counters = files.get(name);
+        if (counters == null) {
+            return;
+        }
+        counters[1] += consumed;
+        if (counters[1] >= counters[0]) {
+            files.remove(name);
+            FileCleaner.delete(new File(folder, name));
+            if (name.equals(fileName)) {
+                rotate();
+            }
+        }
+    }
+
+    private void rotate() {
+        fileName = "results-" + System.currentTimeMillis() + Helper.getGeneratedStringWithLength(7) + extension;
+        records = 0;
+        size = 0;
+        files.put(fileName, new int[]{0, 0});
+    }
+}
@@ -0,0 +1,246 @@
+package util.validator;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static util.validator.Constants.*;
+
+/**
+ * Appends results in compact binary form. File starts with {@link #MAGIC} and format version,
+ * every record is its length followed by fields in fixed order: error flag, scenario, element name, time execution,
+ * root rectangle, screenshot names, image size, overlay with offset lines and failures with their messages and rectangles.
+ * Strings are stored as length and UTF-8 bytes (-1 for missing value), numbers as big endian ints and floats.
+ * Files can be scanned with {@link #scan(File, ResultConsumer)} through memory mapping, without parsing JSON
+ */
+public class BinaryResultSink extends AppendOnlyResultSink {
+
+    static final byte[] MAGIC = {'A', 'M', 'R', 'S'};
+    static final int VERSION = 2;
+    private static final long SCAN_WINDOW = 256L << 20;
+
+    /**
+     * @param folder    folder of result files, created once here
+     * @param batchSize amount of results buffered before they are appended to the file
+     */
+    public BinaryResultSink(File folder, int batchSize) {
+        super(folder, batchSize, ".amrs");
+    }
+
+    /**
+     * Read all results of a result file in order they were written
+     *
+     * @param file
+     * @param consumer
+     * @throws IOException if file is not a result file or consumer fails
+     */
+    public static void scan(File file, ResultConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer window = map(channel, 0, size, MAGIC.length + 4);
+            byte[] magic = new byte[MAGIC.length];
+            if (window.remaining() < MAGIC.length + 4 || !Arrays.equals(get(window, magic), MAGIC) || window.getInt() != VERSION) {
+                throw new IOException("Not a result file of version " + VERSION + ": " + file);
+            }
+            long windowStart = 0;
+            long position = MAGIC.length + 4;
+            while (size - position >= 4) {
+                if (position + 4 > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = map(channel, windowStart, size, 4);
+                }
+                int length = window.getInt((int) (position - windowStart));
+                if (length < 0 || position + 4 + length > size) {
+                    throw new IOException("Corrupted result at " + position + " of " + file);
+                }
+                if (position + 4 + length > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = map(channel, windowStart, size, 4 + length);
+                }
+                ByteBuffer record = window.duplicate();
+                record.position((int) (position - windowStart));
+                record = record.slice();
+                record.limit(4 + length);
+                consumer.accept(read(record));
+                position += 4 + length;
+            }
+        }
+    }
+
+    /**
+     * Map part of the file starting at position, at least the needed amount of bytes.
+     * Files larger than one mapping (2 GB) are scanned window by window
+     */
+    private static ByteBuffer map(FileChannel channel, long position, long size, int needed) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Math.max(SCAN_WINDOW, needed)));
+    }
+
+    @Override
+    byte[] header() {
+        return ByteBuffer.allocate(MAGIC.length + 4).put(MAGIC).putInt(VERSION).array();
+    }
+
+    @Override
+    byte[] encode(JSONObject result) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeBoolean(Boolean.TRUE.equals(result.get(ERROR_KEY)));
+            writeString(out, result.get(SCENARIO));
+            writeString(out, result.get(ELEMENT_NAME));
+            writeString(out, result.get(TIME_EXECUTION));
+
+            JSONObject root = (JSONObject) result.get(ROOT_ELEMENT);
+            out.writeBoolean(root != null);
+            if (root != null) {
+                writeInts(out, root);
+            }
+
+            writeString(out, result.get(SCREENSHOT));
+            writeString(out, result.get(SCREENSHOT_THUMBNAIL));
+            writeString(out, result.get(SCREENSHOT_FULL));
+            out.writeInt(intValue(result.get(IMAGE_WIDTH)));
+            out.writeInt(intValue(result.get(IMAGE_HEIGHT)));
+
+            JSONArray overlay = (JSONArray) result.get(OVERLAY);
+            out.writeInt(overlay != null ? overlay.size() : -1);
+            if (overlay != null) {
+                for (Object item : overlay) {
+                    writeInts(out, (JSONObject) item);
+                    writeString(out, ((JSONObject) item).get(COLOR));
+                    writeString(out, ((JSONObject) item).get(LINE));
+                }
+            }
+
+            JSONArray details = result.get(DETAILS) instanceof JSONArray ? (JSONArray) result.get(DETAILS) : new JSONArray();
+            out.writeInt(details.size());
+            for (Object obj : details) {
+                JSONObject reason = (JSONObject) ((JSONObject) obj).get(REASON);
+                writeString(out, reason.get(MESSAGE));
+                JSONObject element = (JSONObject) reason.get(ELEMENT);
+                out.writeBoolean(element != null);
+                if (element != null) {
+                    out.writeFloat(((Number) element.get(X)).floatValue());
+                    out.writeFloat(((Number) element.get(Y)).floatValue());
+                    out.writeFloat(((Number) element.get(WIDTH)).floatValue());
+                    out.writeFloat(((Number) element.get(HEIGHT)).floatValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(record.length - 4);
+        return record;
+    }
+
+    @Override
+    JSONObject decode(ByteBuffer record) {
+        return read(record);
+    }
+
+    private static JSONObject read(ByteBuffer in) {
+        in.getInt();
+        JSONObject result = new JSONObject();
+        result.put(ERROR_KEY, in.get() != 0);
+        putString(result, SCENARIO, in);
+        putString(result, ELEMENT_NAME, in);
+        putString(result, TIME_EXECUTION, in);
+        if (in.get() != 0) {
+            result.put(ROOT_ELEMENT, readInts(in));
+        }
+
+        putString(result, SCREENSHOT, in);
+        putString(result, SCREENSHOT_THUMBNAIL, in);
+        putString(result, SCREENSHOT_FULL, in);
+        int imageWidth = in.getInt();
+        int imageHeight = in.getInt();
+        if (imageWidth >= 0) {
+            result.put(IMAGE_WIDTH, imageWidth);
+            result.put(IMAGE_HEIGHT, imageHeight);
+        }
+
+        int overlaySize = in.getInt();
+        if (overlaySize >= 0) {
+            JSONArray overlay = new JSONArray();
+            for (int i = 0; i < overlaySize; i++) {
+                JSONObject item = readInts(in);
+                putString(item, COLOR, in);
+                putString(item, LINE, in);
+                overlay.add(item);
+            }
+            result.put(OVERLAY, overlay);
+        }
+
+        int detailsSize = in.getInt();
+        JSONArray details = new JSONArray();
+        for (int i = 0; i < detailsSize; i++) {
+            JSONObject reason = new JSONObject();
+            putString(reason, MESSAGE, in);
+            if (in.get() != 0) {
+                JSONObject element = new JSONObject();
+                element.put(X, in.getFloat());
+                element.put(Y, in.getFloat());
+                element.put(WIDTH, in.getFloat());
+                element.put(HEIGHT, in.getFloat());
+                reason.put(ELEMENT, element);
+            }
+            JSONObject detail = new JSONObject();
+            detail.put(REASON, reason);
+            details.add(detail);
+        }
+        result.put(DETAILS, details);
+        return result;
+    }
+
+    private static void writeInts(DataOutputStream out, JSONObject rect) throws IOException {
+        out.writeInt(intValue(rect.get(X)));
+        out.writeInt(intValue(rect.get(Y)));
+        out.writeInt(intValue(rect.get(WIDTH)));
+        out.writeInt(intValue(rect.get(HEIGHT)));
+    }
+
+    private static JSONObject readInts(ByteBuffer in) {
+        JSONObject rect = new JSONObject();
+        rect.put(X, in.getInt());
+        rect.put(Y, in.getInt());
+        rect.put(WIDTH, in.getInt());
+        rect.put(HEIGHT, in.getInt());
+        return rect;
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : -1;
+    }
+
+    private static void writeString(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void putString(JSONObject target, Object key, ByteBuffer in) {
+        int length = in.getInt();
+        if (length >= 0) {
+            target.put(key, new String(get(in, new byte[length]), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static byte[] get(ByteBuffer in, byte[] bytes) {
+        in.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,56 @@
+package util.validator;
+
+import org.openqa.selenium.Dimension;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of one layout spec validated on one breakpoint (window size)
+ */
+public class BreakpointResult {
+
+    private final Dimension breakpoint;
+    private final String specName;
+    private final boolean passed;
+    private final List<String> errors;
+    private final long timeExecution;
+
+    BreakpointResult(Dimension breakpoint, String specName, boolean passed, List<String> errors, long timeExecution) {
+        this.breakpoint = breakpoint;
+        this.specName = specName;
+        this.passed = passed;
+        this.errors = Collections.unmodifiableList(errors);
+        this.timeExecution = timeExecution;
+    }
+
+    public Dimension getBreakpoint() {
+        return breakpoint;
+    }
+
+    public String getSpecName() {
+        return specName;
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Time of resize, geometry capture and rule evaluation in milliseconds
+     *
+     * @return long
+     */
+    public long getTimeExecution() {
+        return timeExecution;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%dx%d]: %s", specName, breakpoint.getWidth(), breakpoint.getHeight(), passed ? "passed" : "failed " + errors);
+    }
+}
@@ -10,6 +10,10 @@ public interface ChunkValidator {
 
     ResponsiveUIChunkValidator alignedAsGrid(int horizontalGridSize, int verticalGridSize);
 
+    ResponsiveUIChunkValidator alignedAsGrid(int horizontalGridSize, int verticalGridSize, int tolerance);
+
+    ResponsiveUIChunkValidator alignedAsGrid(int horizontalGridSize, int verticalGridSize, int tolerance, boolean reportIrregular);
+
     ResponsiveUIChunkValidator areNotOverlappedWithEachOther();
 
     ResponsiveUIChunkValidator withSameSize();
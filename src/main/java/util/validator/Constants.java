@@ -11,10 +11,21 @@ public class Constants {
     public static final Object REASON = "reason";
     public static final String ELEMENT = "element";
     public static final String SCREENSHOT = "screenshot";
+    public static final String SCREENSHOT_FULL = "screenshotFull";
+    public static final String SCREENSHOT_THUMBNAIL = "screenshotThumbnail";
+    public static final String OVERLAY = "overlay";
+    public static final String COLOR = "color";
+    public static final String LINE = "line";
+    public static final String LINE_VERTICAL = "vertical";
+    public static final String LINE_HORIZONTAL = "horizontal";
+    public static final String IMAGE_WIDTH = "imageWidth";
+    public static final String IMAGE_HEIGHT = "imageHeight";
     public static final String ELEMENT_NAME = "elementName";
     public static final String ROOT_ELEMENT = "rootElement";
     public static final String SCENARIO = "scenario";
     public static final String TIME_EXECUTION = "timeExecution";
+    public static final String VIEWPORT = "viewport";
+    public static final String ELEMENTS = "elements";
     public static final String TARGET_AUTOMOTION_JSON = "target/automotion/json/";
     public static final String TARGET_AUTOMOTION_IMG = "target/automotion/img/";
     public static final String TARGET_AUTOMOTION = "target/automotion/";
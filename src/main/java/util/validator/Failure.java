@@ -0,0 +1,68 @@
+package util.validator;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.openqa.selenium.Rectangle;
+
+import java.util.List;
+
+import static util.validator.Constants.*;
+
+/**
+ * Failure of a rule: message and rectangle of the failed element, if there is one.
+ * Rules collect failures in this form; they are converted to JSON details only when the result is persisted
+ */
+final class Failure {
+
+    final String message;
+    final boolean hasElement;
+    final int x;
+    final int y;
+    final int width;
+    final int height;
+
+    Failure(String message) {
+        this.message = message;
+        this.hasElement = false;
+        this.x = 0;
+        this.y = 0;
+        this.width = 0;
+        this.height = 0;
+    }
+
+    Failure(String message, Rectangle element) {
+        this.message = message;
+        this.hasElement = true;
+        this.x = element.getX();
+        this.y = element.getY();
+        this.width = element.getWidth();
+        this.height = element.getHeight();
+    }
+
+    /**
+     * @return JSONObject in the format of result details
+     */
+    JSONObject toJson() {
+        JSONObject reason = new JSONObject();
+        reason.put(MESSAGE, message);
+        if (hasElement) {
+            JSONObject element = new JSONObject();
+            element.put(X, (float) x);
+            element.put(Y, (float) y);
+            element.put(WIDTH, (float) width);
+            element.put(HEIGHT, (float) height);
+            reason.put(ELEMENT, element);
+        }
+        JSONObject details = new JSONObject();
+        details.put(REASON, reason);
+        return details;
+    }
+
+    static JSONArray toJson(List<Failure> failures) {
+        JSONArray details = new JSONArray();
+        for (Failure failure : failures) {
+            details.add(failure.toJson());
+        }
+        return details;
+    }
+}
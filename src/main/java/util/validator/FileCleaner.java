@@ -0,0 +1,44 @@
+package util.validator;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes reported result files in background. File that cannot be deleted yet (e.g. still open on Windows) is retried
+ * with growing delay a limited amount of times and left on disk after that
+ */
+final class FileCleaner {
+
+    private final static Logger LOG = Logger.getLogger(FileCleaner.class);
+
+    static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_DELAY_MILLIS = 100;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "automotion-cleaner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileCleaner() {
+    }
+
+    static void delete(File file) {
+        EXECUTOR.execute(() -> attempt(file, 1));
+    }
+
+    private static void attempt(File file, int attempt) {
+        if (file.delete() || !file.exists()) {
+            return;
+        }
+        if (attempt >= MAX_ATTEMPTS) {
+            LOG.warn("Cannot delete " + file + " after " + attempt + " attempts");
+            return;
+        }
+        EXECUTOR.schedule(() -> attempt(file, attempt + 1), RETRY_DELAY_MILLIS << (attempt - 1), TimeUnit.MILLISECONDS);
+    }
+}
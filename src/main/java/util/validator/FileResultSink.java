@@ -0,0 +1,61 @@
+package util.validator;
+
+import org.apache.log4j.Logger;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Stores every result in a separate JSON file. Folder is created once when the sink is created.
+ * Only files of the given references are opened, other files in the folder (e.g. from earlier runs) are never read
+ */
+public class FileResultSink implements ResultSink {
+
+    private final static Logger LOG = Logger.getLogger(FileResultSink.class);
+
+    private final File folder;
+
+    public FileResultSink(File folder) {
+        this.folder = folder;
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            LOG.error("Cannot create folder for results: " + folder);
+        }
+    }
+
+    @Override
+    public String write(String name, JSONObject result) {
+        String fileName = name + ".json";
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(new File(folder, fileName)), StandardCharsets.UTF_8))) {
+            result.writeJSONString(writer);
+            return fileName;
+        } catch (IOException e) {
+            LOG.error("Cannot create json report: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void read(List<String> references, ResultConsumer consumer) throws IOException {
+        JSONParser parser = new JSONParser();
+        for (String reference : references) {
+            File file = new File(folder, reference);
+            JSONObject result;
+            try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                result = (JSONObject) parser.parse(reader);
+            } catch (IOException | ParseException | ClassCastException e) {
+                LOG.error("Cannot read result " + reference + ": " + e);
+                continue;
+            }
+            consumer.accept(result);
+            FileCleaner.delete(file);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package util.validator;
+
+import org.apache.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.*;
+
+/**
+ * Immutable set of element rectangles (and optionally viewport metrics) captured from the page in a single JavaScript call.
+ * Elements that are not part of the snapshot can be added with {@link #extend(WebDriver, Collection)},
+ * which returns a new snapshot and fetches only the missing elements.
+ */
+final class GeometrySnapshot {
+
+    private final static Logger LOG = Logger.getLogger(GeometrySnapshot.class);
+
+    static final String BOUNDING_RECTS_SCRIPT = "var elements = arguments[0], rects = [];" +
+            "var scrollX = window.pageXOffset || document.documentElement.scrollLeft || 0;" +
+            "var scrollY = window.pageYOffset || document.documentElement.scrollTop || 0;" +
+            "for (var i = 0; i < elements.length; i++) {" +
+            "var rect = elements[i].getBoundingClientRect();" +
+            "rects.push([rect.left + scrollX, rect.top + scrollY, rect.width, rect.height]);" +
+            "}" +
+            "return rects;";
+
+    static final String GEOMETRY_WITH_VIEWPORT_SCRIPT = "return {" +
+            "rects: (function() {" + BOUNDING_RECTS_SCRIPT + "}).apply(null, [arguments[0]])," +
+            "viewport: (function() {" + ViewportMetrics.VIEWPORT_SCRIPT + "}).apply(null, [arguments[1]])" +
+            "};";
+
+    private static final GeometrySnapshot EMPTY = new GeometrySnapshot(Collections.emptyMap(), null);
+
+    private final Map<WebElement, Rectangle> rectangles;
+    private final ViewportMetrics viewport;
+
+    private GeometrySnapshot(Map<WebElement, Rectangle> rectangles, ViewportMetrics viewport) {
+        this.rectangles = rectangles;
+        this.viewport = viewport;
+    }
+
+    static GeometrySnapshot empty() {
+        return EMPTY;
+    }
+
+    static GeometrySnapshot capture(WebDriver driver, Collection<WebElement> elements) {
+        return EMPTY.extend(driver, elements);
+    }
+
+    /**
+     * Capture geometry of elements together with viewport metrics. On desktop browsers both are fetched with one script call,
+     * other drivers use the cached viewport metrics of the driver
+     *
+     * @param driver
+     * @param elements
+     * @return GeometrySnapshot
+     */
+    static GeometrySnapshot captureWithViewport(WebDriver driver, Collection<WebElement> elements) {
+        List<WebElement> unique = new ArrayList<>(new LinkedHashSet<>(elements));
+        unique.remove(null);
+        if (ViewportMetrics.isScriptable(driver)) {
+            try {
+                Object result = ((JavascriptExecutor) driver).executeScript(GEOMETRY_WITH_VIEWPORT_SCRIPT, unique, ViewportMetrics.readsZoom());
+                if (result instanceof Map) {
+                    List<Rectangle> fetched = toRectangles(((Map) result).get("rects"), unique.size());
+                    ViewportMetrics viewport = ViewportMetrics.fromScriptResult(((Map) result).get("viewport"));
+                    if (fetched != null && viewport != null) {
+                        return new GeometrySnapshot(Collections.unmodifiableMap(toMap(unique, fetched)), viewport);
+                    }
+                }
+            } catch (WebDriverException e) {
+                LOG.debug("Batch geometry request is not supported, falling back to separate calls: " + e.getMessage());
+            }
+        }
+        GeometrySnapshot snapshot = capture(driver, unique);
+        return new GeometrySnapshot(snapshot.rectangles, ViewportMetrics.of(driver));
+    }
+
+    /**
+     * Returns snapshot that contains all elements of this one plus the specified elements.
+     * Missing elements are fetched with one round-trip to the browser
+     *
+     * @param driver
+     * @param elements
+     * @return GeometrySnapshot
+     */
+    GeometrySnapshot extend(WebDriver driver, Collection<WebElement> elements) {
+        Set<WebElement> unknown = new LinkedHashSet<>();
+        for (WebElement element : elements) {
+            if (element != null && !rectangles.containsKey(element)) {
+                unknown.add(element);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return this;
+        }
+
+        List<WebElement> missing = new ArrayList<>(unknown);
+        Map<WebElement, Rectangle> result = new HashMap<>(rectangles);
+        result.putAll(toMap(missing, fetchRectangles(driver, missing)));
+        return new GeometrySnapshot(Collections.unmodifiableMap(result), viewport);
+    }
+
+    /**
+     * Viewport metrics captured together with the elements, null if snapshot was captured without them
+     *
+     * @return ViewportMetrics
+     */
+    ViewportMetrics getViewport() {
+        return viewport;
+    }
+
+    /**
+     * Elements of this snapshot which rectangle differs from the previous snapshot or is not present there.
+     * If viewport has changed all elements are treated as changed, because percent values and page offsets depend on it
+     *
+     * @param previous
+     * @return Set<WebElement>
+     */
+    Set<WebElement> changedSince(GeometrySnapshot previous) {
+        if (!Objects.equals(viewport, previous.viewport)) {
+            return rectangles.keySet();
+        }
+        Set<WebElement> changed = new HashSet<>();
+        for (Map.Entry<WebElement, Rectangle> entry : rectangles.entrySet()) {
+            if (!entry.getValue().equals(previous.rectangles.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        return changed;
+    }
+
+    boolean contains(WebElement element) {
+        return rectangles.containsKey(element);
+    }
+
+    Rectangle get(WebElement element) {
+        return rectangles.get(element);
+    }
+
+    private static Map<WebElement, Rectangle> toMap(List<WebElement> elements, List<Rectangle> rectangles) {
+        Map<WebElement, Rectangle> result = new HashMap<>();
+        for (int i = 0; i < elements.size(); i++) {
+            result.put(elements.get(i), rectangles.get(i));
+        }
+        return result;
+    }
+
+    private static List<Rectangle> fetchRectangles(WebDriver driver, List<WebElement> elements) {
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                Object result = ((JavascriptExecutor) driver).executeScript(BOUNDING_RECTS_SCRIPT, elements);
+                List<Rectangle> rectangles = toRectangles(result, elements.size());
+                if (rectangles != null) {
+                    return rectangles;
+                }
+            } catch (WebDriverException e) {
+                LOG.debug("Batch geometry request is not supported, falling back to element calls: " + e.getMessage());
+            }
+        }
+
+        List<Rectangle> rectangles = new ArrayList<>(elements.size());
+        for (WebElement element : elements) {
+            rectangles.add(new Rectangle(element.getLocation(), element.getSize()));
+        }
+        return rectangles;
+    }
+
+    private static List<Rectangle> toRectangles(Object result, int expectedSize) {
+        if (!(result instanceof List) || ((List) result).size() != expectedSize) {
+            return null;
+        }
+        List<Rectangle> rectangles = new ArrayList<>(expectedSize);
+        for (Object item : (List) result) {
+            if (!(item instanceof List) || ((List) item).size() != 4) {
+                return null;
+            }
+            List values = (List) item;
+            for (Object value : values) {
+                if (!(value instanceof Number)) {
+                    return null;
+                }
+            }
+            int x = ((Number) values.get(0)).intValue();
+            int y = ((Number) values.get(1)).intValue();
+            int width = ((Number) values.get(2)).intValue();
+            int height = ((Number) values.get(3)).intValue();
+            rectangles.add(new Rectangle(x, y, height, width));
+        }
+        return rectangles;
+    }
+}
@@ -0,0 +1,117 @@
+package util.validator;
+
+import java.util.Arrays;
+
+/**
+ * Analyzes layout of cells in a grid. Rows and columns are clusters of cells whose top (left) edges differ by no more than
+ * tolerance from the first cell of the cluster. Works on primitive arrays of cached coordinates, coordinates are sorted once per axis
+ */
+final class GridAnalyzer {
+
+    private GridAnalyzer() {
+    }
+
+    /**
+     * @param x         left edges of cells
+     * @param y         top edges of cells
+     * @param width     widths of cells
+     * @param height    heights of cells
+     * @param tolerance max difference in pixels between edges of cells in the same row or column
+     * @return Layout
+     */
+    static Layout analyze(int[] x, int[] y, int[] width, int[] height, int tolerance) {
+        int n = x.length;
+        int[] row = new int[n];
+        int[] column = new int[n];
+        long[] byY = sortedKeys(y);
+        long[] byX = sortedKeys(x);
+        int[] rowGutters = cluster(byY, y, height, tolerance, row);
+        int[] columnGutters = cluster(byX, x, width, tolerance, column);
+        int rows = rowGutters.length + (n > 0 ? 1 : 0);
+
+        // Cells are visited from left to right, so position of a cell in its row is the count of cells already seen in that row
+        int[] rowSizes = new int[rows];
+        int[] misaligned = new int[n];
+        int misalignedCount = 0;
+        for (long key : byX) {
+            int i = (int) key;
+            int position = rowSizes[row[i]]++;
+            if (column[i] != position) {
+                misaligned[misalignedCount++] = i;
+            }
+        }
+        Arrays.sort(misaligned, 0, misalignedCount);
+
+        return new Layout(rows, columnGutters.length + (n > 0 ? 1 : 0), rowSizes, rowGutters, columnGutters, Arrays.copyOf(misaligned, misalignedCount));
+    }
+
+    /**
+     * Keys that hold value in high and index in low 32 bits, sorted by value then by index
+     */
+    private static long[] sortedKeys(int[] values) {
+        long[] keys = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = ((long) values[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Assign cluster to every cell and return gaps between neighbour clusters (start of next cluster minus end of previous one)
+     */
+    private static int[] cluster(long[] sorted, int[] start, int[] size, int tolerance, int[] clusterOf) {
+        int[] gutters = new int[Math.max(sorted.length - 1, 0)];
+        int clusters = 0;
+        int anchor = 0;
+        int clusterEnd = 0;
+        for (int k = 0; k < sorted.length; k++) {
+            int i = (int) sorted[k];
+            if (k == 0 || start[i] - anchor > tolerance) {
+                if (k > 0) {
+                    gutters[clusters - 1] = start[i] - clusterEnd;
+                }
+                anchor = start[i];
+                clusterEnd = start[i] + size[i];
+                clusters++;
+            } else {
+                clusterEnd = Math.max(clusterEnd, start[i] + size[i]);
+            }
+            clusterOf[i] = clusters - 1;
+        }
+        return Arrays.copyOf(gutters, Math.max(clusters - 1, 0));
+    }
+
+    /**
+     * @param gutters   gaps between neighbour rows or columns
+     * @param tolerance max difference in pixels between gaps
+     * @return true if all gaps differ by no more than tolerance
+     */
+    static boolean isEven(int[] gutters, int tolerance) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int gutter : gutters) {
+            min = Math.min(min, gutter);
+            max = Math.max(max, gutter);
+        }
+        return gutters.length < 2 || (long) max - min <= tolerance;
+    }
+
+    static final class Layout {
+        final int rows;
+        final int columns;
+        final int[] rowSizes;
+        final int[] rowGutters;
+        final int[] columnGutters;
+        final int[] misalignedCells;
+
+        Layout(int rows, int columns, int[] rowSizes, int[] rowGutters, int[] columnGutters, int[] misalignedCells) {
+            this.rows = rows;
+            this.columns = columns;
+            this.rowSizes = rowSizes;
+            this.rowGutters = rowGutters;
+            this.columnGutters = columnGutters;
+            this.misalignedCells = misalignedCells;
+        }
+    }
+}
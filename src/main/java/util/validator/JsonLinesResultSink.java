@@ -0,0 +1,35 @@
+package util.validator;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Appends results as JSON Lines, one result per line
+ */
+public class JsonLinesResultSink extends AppendOnlyResultSink {
+
+    private final JSONParser parser = new JSONParser();
+
+    /**
+     * @param folder    folder of result files, created once here
+     * @param batchSize amount of results buffered before they are appended to the file
+     */
+    public JsonLinesResultSink(File folder, int batchSize) {
+        super(folder, batchSize, ".jsonl");
+    }
+
+    @Override
+    byte[] encode(JSONObject result) {
+        return (result.toJSONString() + '\n').getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    JSONObject decode(ByteBuffer record) throws ParseException {
+        return (JSONObject) parser.parse(StandardCharsets.UTF_8.decode(record).toString().trim());
+    }
+}
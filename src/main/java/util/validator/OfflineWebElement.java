@@ -0,0 +1,117 @@
+package util.validator;
+
+import org.openqa.selenium.*;
+
+import java.util.List;
+
+/**
+ * Web element stand-in backed by captured geometry. Only geometry and identity are available
+ */
+class OfflineWebElement implements WebElement {
+
+    private final String name;
+    private final Rectangle rect;
+
+    OfflineWebElement(String name, Rectangle rect) {
+        this.name = name;
+        this.rect = rect;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @Override
+    public Point getLocation() {
+        return new Point(rect.getX(), rect.getY());
+    }
+
+    @Override
+    public Dimension getSize() {
+        return new Dimension(rect.getWidth(), rect.getHeight());
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return new Rectangle(rect.getX(), rect.getY(), rect.getHeight(), rect.getWidth());
+    }
+
+    @Override
+    public String getTagName() {
+        return "";
+    }
+
+    @Override
+    public String getAttribute(String s) {
+        return "id".equals(s) ? name : "";
+    }
+
+    @Override
+    public String getText() {
+        return "";
+    }
+
+    @Override
+    public String getCssValue(String s) {
+        return "";
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return true;
+    }
+
+    @Override
+    public boolean isSelected() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void click() {
+        throw unsupported();
+    }
+
+    @Override
+    public void submit() {
+        throw unsupported();
+    }
+
+    @Override
+    public void sendKeys(CharSequence... charSequences) {
+        throw unsupported();
+    }
+
+    @Override
+    public void clear() {
+        throw unsupported();
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        throw unsupported();
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        throw unsupported();
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> outputType) throws WebDriverException {
+        throw unsupported();
+    }
+
+    @Override
+    public String toString() {
+        return "Offline element: " + name;
+    }
+
+    private UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException(String.format("Element '%s' is captured geometry and has no browser behind it", name));
+    }
+}
@@ -0,0 +1,19 @@
+package util.validator;
+
+import org.openqa.selenium.Rectangle;
+
+import java.util.List;
+
+/**
+ * Strategy used by {@link ResponsiveUIChunkValidator#areNotOverlappedWithEachOther()} to find overlapping elements
+ */
+public interface OverlapDetector {
+
+    /**
+     * Find all pairs of intersecting rectangles. Rectangles that only touch each other or have zero width or height do not overlap
+     *
+     * @param rectangles
+     * @return list of index pairs {i, j} with i &lt; j
+     */
+    List<int[]> findOverlappingPairs(List<Rectangle> rectangles);
+}
@@ -0,0 +1,172 @@
+package util.validator;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static util.validator.Constants.*;
+
+/**
+ * Geometry of page elements captured once from the browser (or built by hand) that can be validated
+ * without live browser with {@link #validator()}. Can be stored to and loaded from JSON
+ */
+public class PageGeometry {
+
+    private final long viewportWidth;
+    private final long viewportHeight;
+    private final Map<String, OfflineWebElement> elements = new LinkedHashMap<>();
+
+    public PageGeometry(long viewportWidth, long viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * Capture viewport size and geometry of specified elements with one request for all elements
+     *
+     * @param driver
+     * @param elements map of element name to element
+     * @return PageGeometry
+     */
+    public static PageGeometry capture(WebDriver driver, Map<String, WebElement> elements) {
+        GeometrySnapshot snapshot = GeometrySnapshot.captureWithViewport(driver, elements.values());
+        PageGeometry page = new PageGeometry(snapshot.getViewport().getWidth(), snapshot.getViewport().getHeight());
+        for (Map.Entry<String, WebElement> entry : elements.entrySet()) {
+            page.addElement(entry.getKey(), snapshot.get(entry.getValue()));
+        }
+        return page;
+    }
+
+    /**
+     * Capture viewport size and geometry of elements found by specified locators
+     *
+     * @param driver
+     * @param locators map of element name to locator
+     * @return PageGeometry
+     */
+    public static PageGeometry captureBy(WebDriver driver, Map<String, By> locators) {
+        Map<String, WebElement> elements = new LinkedHashMap<>();
+        for (Map.Entry<String, By> entry : locators.entrySet()) {
+            elements.put(entry.getKey(), driver.findElement(entry.getValue()));
+        }
+        return capture(driver, elements);
+    }
+
+    public static PageGeometry load(File file) throws IOException, ParseException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            return fromJson((JSONObject) new JSONParser().parse(reader));
+        }
+    }
+
+    public static PageGeometry fromJson(String json) throws ParseException {
+        return fromJson((JSONObject) new JSONParser().parse(json));
+    }
+
+    private static PageGeometry fromJson(JSONObject json) {
+        JSONObject viewport = (JSONObject) json.get(VIEWPORT);
+        PageGeometry page = new PageGeometry(number(viewport, WIDTH), number(viewport, HEIGHT));
+
+        JSONObject elements = (JSONObject) json.get(ELEMENTS);
+        for (Object name : elements.keySet()) {
+            JSONObject rect = (JSONObject) elements.get(name);
+            page.addElement((String) name, (int) number(rect, X), (int) number(rect, Y), (int) number(rect, WIDTH), (int) number(rect, HEIGHT));
+        }
+        return page;
+    }
+
+    private static long number(JSONObject json, String key) {
+        return ((Number) json.get(key)).longValue();
+    }
+
+    public PageGeometry addElement(String name, int x, int y, int width, int height) {
+        return addElement(name, new Rectangle(x, y, height, width));
+    }
+
+    private PageGeometry addElement(String name, Rectangle rect) {
+        elements.put(name, new OfflineWebElement(name, rect));
+        return this;
+    }
+
+    /**
+     * Get element stand-in that can be passed to validator instead of real web element
+     *
+     * @param name
+     * @return WebElement
+     */
+    public WebElement element(String name) {
+        WebElement element = elements.get(name);
+        if (element == null) {
+            throw new IllegalArgumentException(String.format("Element '%s' is not present in page geometry", name));
+        }
+        return element;
+    }
+
+    public List<WebElement> elements(String... names) {
+        List<WebElement> result = new ArrayList<>(names.length);
+        for (String name : names) {
+            result.add(element(name));
+        }
+        return result;
+    }
+
+    public Set<String> elementNames() {
+        return Collections.unmodifiableSet(elements.keySet());
+    }
+
+    public long getViewportWidth() {
+        return viewportWidth;
+    }
+
+    public long getViewportHeight() {
+        return viewportHeight;
+    }
+
+    ViewportMetrics getViewport() {
+        return new ViewportMetrics((int) viewportWidth, (int) viewportHeight, ViewportMetrics.DEFAULT_ZOOM);
+    }
+
+    /**
+     * Create validator that evaluates all rules against this geometry without live browser
+     *
+     * @return ResponsiveUIValidator
+     */
+    public ResponsiveUIValidator validator() {
+        return new ResponsiveUIValidator(this);
+    }
+
+    public String toJson() {
+        JSONObject viewport = new JSONObject();
+        viewport.put(WIDTH, viewportWidth);
+        viewport.put(HEIGHT, viewportHeight);
+
+        JSONObject rects = new JSONObject();
+        for (OfflineWebElement element : elements.values()) {
+            Rectangle rect = element.getRect();
+            JSONObject json = new JSONObject();
+            json.put(X, rect.getX());
+            json.put(Y, rect.getY());
+            json.put(WIDTH, rect.getWidth());
+            json.put(HEIGHT, rect.getHeight());
+            rects.put(element.getName(), json);
+        }
+
+        JSONObject json = new JSONObject();
+        json.put(VIEWPORT, viewport);
+        json.put(ELEMENTS, rects);
+        return json.toJSONString();
+    }
+
+    public void save(File file) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write(toJson());
+        }
+    }
+}
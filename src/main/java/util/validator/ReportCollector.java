@@ -0,0 +1,116 @@
+package util.validator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static util.validator.Constants.TARGET_AUTOMOTION_JSON;
+
+/**
+ * Thread safe collector of validation results that are waiting for the HTML report.
+ * One collector can be shared by validators of different drivers to build a single report
+ */
+public class ReportCollector {
+
+    private static final ResultSink DEFAULT_SINK = new FileResultSink(new File(TARGET_AUTOMOTION_JSON));
+
+    private final ResultSink sink;
+    private final Queue<String> jsonFiles = new ConcurrentLinkedQueue<>();
+    private final Object lock = new Object();
+    private int pending;
+
+    /**
+     * Collector that stores every result in a separate JSON file
+     */
+    public ReportCollector() {
+        this(DEFAULT_SINK);
+    }
+
+    /**
+     * @param sink storage of the results, e.g. {@link JsonLinesResultSink} to append results in batches
+     */
+    public ReportCollector(ResultSink sink) {
+        this.sink = sink;
+    }
+
+    public ResultSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Register result or screenshot that is being written. Every call has to be followed by {@link #add(String)} or {@link #done()}
+     */
+    void begin() {
+        synchronized (lock) {
+            pending++;
+        }
+    }
+
+    /**
+     * Add written result
+     *
+     * @param reference reference of the result in the sink, null if result was not written
+     */
+    void add(String reference) {
+        if (reference != null) {
+            jsonFiles.add(reference);
+        }
+        done();
+    }
+
+    /**
+     * Release registered write that does not add a result, e.g. a screenshot
+     */
+    void done() {
+        synchronized (lock) {
+            if (pending > 0) {
+                pending--;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Wait until all results and screenshots registered with {@link #begin()} are written
+     *
+     * @param timeout
+     * @param unit
+     * @return true if there are no results being written, false if timeout elapsed before
+     * @throws InterruptedException
+     */
+    public boolean awaitPending(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (pending > 0) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, left);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Flush the sink and take all collected results. Results are removed from collector so every result is reported only once
+     *
+     * @return List<String>
+     */
+    List<String> drain() {
+        sink.flush();
+        List<String> result = new ArrayList<>();
+        String jsonFile;
+        while ((jsonFile = jsonFiles.poll()) != null) {
+            result.add(jsonFile);
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return jsonFiles.isEmpty();
+    }
+}
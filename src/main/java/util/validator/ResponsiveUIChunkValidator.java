@@ -1,6 +1,5 @@
 package util.validator;
 
-import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import util.validator.properties.Padding;
 
@@ -8,11 +7,9 @@ import java.util.List;
 
 public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements ChunkValidator {
 
-    ResponsiveUIChunkValidator(WebDriver driver, List<WebElement> elements) {
-        super(driver);
+    ResponsiveUIChunkValidator(ResponsiveUIValidator parent, List<WebElement> elements) {
+        super(parent);
         rootElements = elements;
-        pageWidth = (int) getPageWidth();
-        pageHeight = (int) getPageHeight();
         rootElement = rootElements.get(0);
         startTime = System.currentTimeMillis();
     }
@@ -25,7 +22,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator changeMetricsUnitsTo(Units units) {
-        this.units = units;
+        uncachedRule(() -> this.units = units);
         return this;
     }
 
@@ -37,7 +34,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator alignedAsGrid(int horizontalGridSize) {
-        validateGridAlignment(horizontalGridSize, 0);
+        rule(() -> validateGridAlignment(horizontalGridSize, 0));
         return this;
     }
 
@@ -50,7 +47,39 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator alignedAsGrid(int horizontalGridSize, int verticalGridSize) {
-        validateGridAlignment(horizontalGridSize, verticalGridSize);
+        rule(() -> validateGridAlignment(horizontalGridSize, verticalGridSize));
+        return this;
+    }
+
+    /**
+     * Verify that elements are aligned in a grid view width specified amount of columns and rows.
+     * Elements which edges differ by no more than tolerance are treated as being in the same row or column,
+     * elements that are shifted from the column of their position in a row and unequal gutters are reported
+     *
+     * @param horizontalGridSize
+     * @param verticalGridSize
+     * @param tolerance in pixels
+     * @return ResponsiveUIChunkValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidator alignedAsGrid(int horizontalGridSize, int verticalGridSize, int tolerance) {
+        return alignedAsGrid(horizontalGridSize, verticalGridSize, tolerance, true);
+    }
+
+    /**
+     * Verify that elements are aligned in a grid view width specified amount of columns and rows.
+     * Elements which edges differ by no more than tolerance are treated as being in the same row or column
+     *
+     * @param horizontalGridSize
+     * @param verticalGridSize
+     * @param tolerance       in pixels
+     * @param reportIrregular report elements that are shifted from the column of their position in a row,
+     *                        and gutters between rows or columns that differ by more than tolerance
+     * @return ResponsiveUIChunkValidator
+     */
+    @Override
+    public ResponsiveUIChunkValidator alignedAsGrid(int horizontalGridSize, int verticalGridSize, int tolerance, boolean reportIrregular) {
+        rule(() -> validateGridAlignment(horizontalGridSize, verticalGridSize, tolerance, reportIrregular));
         return this;
     }
 
@@ -61,7 +90,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator areNotOverlappedWithEachOther() {
-        validateElementsAreNotOverlapped(rootElements);
+        rule(() -> validateElementsAreNotOverlapped(rootElements));
         return this;
     }
 
@@ -72,7 +101,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator withSameSize() {
-        validateSameSize(rootElements, 0);
+        rule(() -> validateSameSize(rootElements, 0));
         return this;
     }
 
@@ -83,7 +112,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator withSameWidth() {
-        validateSameSize(rootElements, 1);
+        rule(() -> validateSameSize(rootElements, 1));
         return this;
     }
 
@@ -94,7 +123,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator withSameHeight() {
-        validateSameSize(rootElements, 2);
+        rule(() -> validateSameSize(rootElements, 2));
         return this;
     }
 
@@ -105,7 +134,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator withNotSameSize() {
-        validateNotSameSize(rootElements, 0);
+        rule(() -> validateNotSameSize(rootElements, 0));
         return this;
     }
 
@@ -116,7 +145,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator withNotSameWidth() {
-        validateNotSameSize(rootElements, 1);
+        rule(() -> validateNotSameSize(rootElements, 1));
         return this;
     }
 
@@ -127,7 +156,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator withNotSameHeight() {
-        validateNotSameSize(rootElements, 2);
+        rule(() -> validateNotSameSize(rootElements, 2));
         return this;
     }
 
@@ -138,7 +167,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator sameRightOffset() {
-        validateRightOffsetForChunk(rootElements);
+        rule(() -> validateRightOffsetForChunk(rootElements));
         return this;
     }
 
@@ -149,7 +178,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator sameLeftOffset() {
-        validateLeftOffsetForChunk(rootElements);
+        rule(() -> validateLeftOffsetForChunk(rootElements));
         return this;
     }
 
@@ -160,7 +189,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator sameTopOffset() {
-        validateTopOffsetForChunk(rootElements);
+        rule(() -> validateTopOffsetForChunk(rootElements));
         return this;
     }
 
@@ -171,7 +200,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator sameBottomOffset() {
-        validateBottomOffsetForChunk(rootElements);
+        rule(() -> validateBottomOffsetForChunk(rootElements));
         return this;
     }
 
@@ -182,7 +211,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator equalLeftRightOffset() {
-        validateEqualLeftRightOffset(rootElements);
+        rule(() -> validateEqualLeftRightOffset(rootElements));
         return this;
     }
 
@@ -193,7 +222,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator equalTopBottomOffset() {
-        validateEqualTopBottomOffset(rootElements);
+        rule(() -> validateEqualTopBottomOffset(rootElements));
         return this;
     }
 
@@ -206,7 +235,7 @@ public class ResponsiveUIChunkValidator extends ResponsiveUIValidator implements
      */
     @Override
     public ResponsiveUIChunkValidator insideOf(WebElement containerElement, String readableContainerName) {
-        validateInsideOfContainer(containerElement, readableContainerName);
+        rule(() -> validateInsideOfContainer(containerElement, readableContainerName), containerElement);
         return this;
     }
 }
\ No newline at end of file
@@ -1,29 +1,32 @@
 package util.validator;
 
 import http.helpers.Helper;
+import http.helpers.TextFinder;
 import io.appium.java_client.AppiumDriver;
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
-import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.ParseException;
 import org.openqa.selenium.*;
-import util.driver.PageValidator;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Rectangle;
 import util.general.HtmlReportBuilder;
+import util.general.SystemHelper;
 import util.validator.properties.Padding;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
 
 import static environment.EnvironmentFactory.*;
 import static util.general.SystemHelper.isRetinaDisplay;
@@ -32,22 +35,30 @@ import static util.validator.ResponsiveUIValidator.Units.PX;
 
 public class ResponsiveUIValidator {
     static final int MIN_OFFSET = -10000;
+    static final int PARALLEL_THRESHOLD = 512;
+    static final long REPORT_TIMEOUT_SECONDS = 120;
     private final static Logger LOG = Logger.getLogger(ResponsiveUIValidator.class);
-    protected static WebDriver driver;
-    static WebElement rootElement;
-    static long startTime;
-    private static boolean isMobileTopBar = false;
-    private static boolean withReport = false;
-    private static String scenarioName = "Default";
-    private static Color rootColor = new Color(255, 0, 0, 255);
-    private static Color highlightedElementsColor = new Color(255, 0, 255, 255);
-    private static Color linesColor = Color.ORANGE;
-    private static String currentZoom = "100%";
-    private static List<String> jsonFiles = new ArrayList<>();
-    private static File screenshot;
-    private static BufferedImage img;
-    private static Graphics2D g;
-    private static JSONArray errorMessage;
+    private static final ReportCollector SHARED_COLLECTOR = new ReportCollector();
+    protected final WebDriver driver;
+    WebElement rootElement;
+    long startTime;
+    private final ReportCollector reportCollector;
+    private final PageGeometry pageGeometry;
+    private boolean isMobileTopBar = false;
+    private boolean withReport = false;
+    private String scenarioName = "Default";
+    private Color rootColor = new Color(255, 0, 0, 255);
+    private Color highlightedElementsColor = new Color(255, 0, 255, 255);
+    private Color linesColor = Color.ORANGE;
+    private OverlapDetector overlapDetector = new SweepLineOverlapDetector();
+    private boolean parallelEvaluation = false;
+    private float screenshotCompressionQuality = -1;
+    private int screenshotCropMargin = -1;
+    private int screenshotThumbnailWidth = ScreenshotAnnotation.DEFAULT_THUMBNAIL_WIDTH;
+    private boolean fullScreenshotWithEvidence = false;
+    private boolean screenshotDeduplication = false;
+    private String currentZoom = ViewportMetrics.DEFAULT_ZOOM;
+    private List<Failure> failures;
     boolean drawLeftOffsetLine = false;
     boolean drawRightOffsetLine = false;
     boolean drawTopOffsetLine = false;
@@ -57,10 +68,70 @@ public class ResponsiveUIValidator {
     ResponsiveUIValidator.Units units = PX;
     int pageWidth;
     int pageHeight;
+    GeometrySnapshot geometry = GeometrySnapshot.empty();
+    final ValidationPlan plan = new ValidationPlan();
 
+    /**
+     * Create validator that stores results in the collector shared by all validators created without own collector,
+     * so their results end up in one report
+     *
+     * @param driver
+     */
     public ResponsiveUIValidator(WebDriver driver) {
-        ResponsiveUIValidator.driver = driver;
-        errorMessage = new JSONArray();
+        this(driver, SHARED_COLLECTOR);
+    }
+
+    /**
+     * Create validator that stores results in specified collector, e.g. to build a separate report.
+     * The same collector can be shared by validators running in parallel threads
+     *
+     * @param driver
+     * @param reportCollector
+     */
+    public ResponsiveUIValidator(WebDriver driver, ReportCollector reportCollector) {
+        this(driver, reportCollector, null);
+    }
+
+    /**
+     * Create validator that evaluates rules against captured page geometry without live browser. Screenshots are not available in this mode
+     *
+     * @param pageGeometry
+     */
+    public ResponsiveUIValidator(PageGeometry pageGeometry) {
+        this(pageGeometry, SHARED_COLLECTOR);
+    }
+
+    /**
+     * Create validator that evaluates rules against captured page geometry and stores results in specified collector
+     *
+     * @param pageGeometry
+     * @param reportCollector
+     */
+    public ResponsiveUIValidator(PageGeometry pageGeometry, ReportCollector reportCollector) {
+        this(null, reportCollector, pageGeometry);
+    }
+
+    private ResponsiveUIValidator(WebDriver driver, ReportCollector reportCollector, PageGeometry pageGeometry) {
+        this.driver = driver;
+        this.reportCollector = reportCollector;
+        this.pageGeometry = pageGeometry;
+        failures = new ArrayList<>();
+    }
+
+    ResponsiveUIValidator(ResponsiveUIValidator parent) {
+        this(parent.driver, parent.reportCollector, parent.pageGeometry);
+        isMobileTopBar = parent.isMobileTopBar;
+        scenarioName = parent.scenarioName;
+        rootColor = parent.rootColor;
+        highlightedElementsColor = parent.highlightedElementsColor;
+        linesColor = parent.linesColor;
+        overlapDetector = parent.overlapDetector;
+        parallelEvaluation = parent.parallelEvaluation;
+        screenshotCompressionQuality = parent.screenshotCompressionQuality;
+        screenshotCropMargin = parent.screenshotCropMargin;
+        screenshotThumbnailWidth = parent.screenshotThumbnailWidth;
+        fullScreenshotWithEvidence = parent.fullScreenshotWithEvidence;
+        screenshotDeduplication = parent.screenshotDeduplication;
     }
 
     /**
@@ -90,6 +161,74 @@ public class ResponsiveUIValidator {
         linesColor = color;
     }
 
+    /**
+     * Set strategy that finds overlapped elements in areNotOverlappedWithEachOther(). Sweep line detector is used by default
+     *
+     * @param detector
+     */
+    public void setOverlapDetector(OverlapDetector detector) {
+        overlapDetector = detector;
+    }
+
+    /**
+     * Evaluate rules of large chunks (starting from 512 elements) across all cores. Order of reported errors stays the same as in serial evaluation
+     *
+     * @param parallelEvaluation
+     */
+    public void setParallelEvaluation(boolean parallelEvaluation) {
+        this.parallelEvaluation = parallelEvaluation;
+    }
+
+    /**
+     * Set PNG compression quality of screenshots in report: from 0 (smallest files) to 1 (fastest encoding).
+     * Takes effect only if the PNG encoder of JRE supports compression settings (Java 9+)
+     *
+     * @param quality
+     */
+    public void setScreenshotCompressionQuality(float quality) {
+        screenshotCompressionQuality = quality;
+    }
+
+    /**
+     * Show in report only region of screenshot around root and failed elements with specified margin, and small thumbnail of the page.
+     * Full screenshot is not stored in this mode unless {@link #setFullScreenshotWithEvidence(boolean)} is enabled.
+     * Negative margin (default) shows the full screenshot
+     *
+     * @param margin in pixels of the page
+     */
+    public void setScreenshotCropMargin(int margin) {
+        screenshotCropMargin = margin;
+    }
+
+    /**
+     * Set width of thumbnail of the page stored with cropped screenshot, 320 by default
+     *
+     * @param width in pixels of the thumbnail
+     */
+    public void setScreenshotThumbnailWidth(int width) {
+        screenshotThumbnailWidth = width;
+    }
+
+    /**
+     * Store also full screenshot with cropped screenshot and thumbnail, thumbnail in report links to it. Disabled by default,
+     * because every stored image is encoded separately
+     *
+     * @param fullScreenshot
+     */
+    public void setFullScreenshotWithEvidence(boolean fullScreenshot) {
+        fullScreenshotWithEvidence = fullScreenshot;
+    }
+
+    /**
+     * Store every distinct screenshot only once. Identical screenshots of different validations (same unchanged page) share one image,
+     * failed elements are drawn by the report over the image. Cropping of screenshots is not applied in this mode
+     *
+     * @param deduplication
+     */
+    public void setScreenshotDeduplication(boolean deduplication) {
+        screenshotDeduplication = deduplication;
+    }
+
     /**
      * Set top bar mobile offset. Applicable only for native mobile testing
      *
@@ -105,7 +244,7 @@ public class ResponsiveUIValidator {
      * @return ResponsiveUIValidator
      */
     public ResponsiveUIValidator init() {
-        return new ResponsiveUIValidator(driver);
+        return new ResponsiveUIValidator(this);
     }
 
     /**
@@ -115,8 +254,9 @@ public class ResponsiveUIValidator {
      * @return ResponsiveUIValidator
      */
     public ResponsiveUIValidator init(String scenarioName) {
-        ResponsiveUIValidator.scenarioName = scenarioName;
-        return new ResponsiveUIValidator(driver);
+        ResponsiveUIValidator validator = new ResponsiveUIValidator(this);
+        validator.scenarioName = scenarioName;
+        return validator;
     }
 
     /**
@@ -127,7 +267,7 @@ public class ResponsiveUIValidator {
      * @return UIValidator
      */
     public UIValidator findElement(WebElement element, String readableNameOfElement) {
-        return new UIValidator(driver, element, readableNameOfElement);
+        return new UIValidator(this, element, readableNameOfElement);
     }
 
     /**
@@ -137,7 +277,7 @@ public class ResponsiveUIValidator {
      * @return ResponsiveUIChunkValidator
      */
     public ResponsiveUIChunkValidator findElements(java.util.List<WebElement> elements) {
-        return new ResponsiveUIChunkValidator(driver, elements);
+        return new ResponsiveUIChunkValidator(this, elements);
     }
 
     /**
@@ -171,16 +311,22 @@ public class ResponsiveUIValidator {
         jsonResults.put(ERROR_KEY, false);
 
         if (rootElement != null) {
-            if (!errorMessage.isEmpty()) {
+            evaluatePlan();
+
+            if (!failures.isEmpty()) {
                 jsonResults.put(ERROR_KEY, true);
-                jsonResults.put(DETAILS, errorMessage);
 
                 if (withReport) {
-                    try {
-                        screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-                        img = ImageIO.read(screenshot);
-                    } catch (Exception e) {
-                        LOG.error("Failed to create screenshot file: " + e.getMessage());
+                    byte[] screenshot = null;
+                    if (driver instanceof TakesScreenshot) {
+                        try {
+                            screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+                            if (screenshot == null) {
+                                LOG.error("Taking of screenshot was failed for some reason.");
+                            }
+                        } catch (Exception e) {
+                            LOG.error("Failed to create screenshot file: " + e.getMessage());
+                        }
                     }
 
                     JSONObject rootDetails = new JSONObject();
@@ -193,32 +339,44 @@ public class ResponsiveUIValidator {
                     jsonResults.put(ROOT_ELEMENT, rootDetails);
                     jsonResults.put(TIME_EXECUTION, String.valueOf(System.currentTimeMillis() - startTime) + " milliseconds");
                     jsonResults.put(ELEMENT_NAME, rootElementReadableName);
-                    jsonResults.put(SCREENSHOT, rootElementReadableName.replace(" ", "") + "-" + screenshot.getName());
-
                     long ms = System.currentTimeMillis();
                     String uuid = Helper.getGeneratedStringWithLength(7);
-                    String jsonFileName = rootElementReadableName.replace(" ", "") + "-automotion" + ms + uuid + ".json";
-                    try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(TARGET_AUTOMOTION_JSON + jsonFileName), StandardCharsets.UTF_8))) {
-                        writer.write(jsonResults.toJSONString());
-                    } catch (IOException ex) {
-                        LOG.error("Cannot create json report: " + ex.getMessage());
-                    }
-                    jsonFiles.add(jsonFileName);
-                    try {
-                        File file = new File(TARGET_AUTOMOTION_JSON + rootElementReadableName.replace(" ", "") + "-automotion" + ms + uuid + ".json");
-                        if (file.getParentFile().mkdirs()) {
-                            if (file.createNewFile()) {
-                                BufferedWriter writer = new BufferedWriter(new FileWriter(file));
-                                writer.write(jsonResults.toJSONString());
-                                writer.close();
+                    String screenshotName = rootElementReadableName.replace(" ", "") + "-screenshot" + ms + uuid;
+                    ScreenshotAnnotation annotation = null;
+                    if (screenshot != null) {
+                        annotation = annotation(screenshot, new File(TARGET_AUTOMOTION_IMG + screenshotName + ".png"));
+                        if (screenshotDeduplication) {
+                            int[] size = ScreenshotStore.imageSize(screenshot);
+                            jsonResults.put(SCREENSHOT, ScreenshotStore.store(screenshot, reportCollector));
+                            jsonResults.put(OVERLAY, annotation.overlay());
+                            jsonResults.put(IMAGE_WIDTH, size[0]);
+                            jsonResults.put(IMAGE_HEIGHT, size[1]);
+                        } else if (screenshotCropMargin >= 0) {
+                            jsonResults.put(SCREENSHOT, screenshotName + "-crop.png");
+                            jsonResults.put(SCREENSHOT_THUMBNAIL, screenshotName + "-thumb.png");
+                            if (fullScreenshotWithEvidence) {
+                                jsonResults.put(SCREENSHOT_FULL, screenshotName + ".png");
                             }
+                        } else {
+                            jsonResults.put(SCREENSHOT, screenshotName + ".png");
                         }
-                    } catch (IOException e) {
-                        e.printStackTrace();
                     }
 
-                    if ((boolean) jsonResults.get(ERROR_KEY)) {
-                        drawScreenshot();
+                    jsonResults.put(DETAILS, Failure.toJson(failures));
+                    reportCollector.begin();
+                    String reference = null;
+                    try {
+                        reference = reportCollector.getSink().write(rootElementReadableName.replace(" ", "") + "-automotion" + ms + uuid, jsonResults);
+                    } finally {
+                        reportCollector.add(reference);
+                    }
+
+                    if (annotation != null && !screenshotDeduplication) {
+                        if (screenshotCropMargin >= 0) {
+                            annotation.withEvidence(new File(TARGET_AUTOMOTION_IMG + screenshotName + "-crop.png"), new File(TARGET_AUTOMOTION_IMG + screenshotName + "-thumb.png"),
+                                    screenshotCropMargin, screenshotThumbnailWidth, fullScreenshotWithEvidence);
+                        }
+                        ScreenshotPipeline.submit(annotation, reportCollector);
                     }
                 }
             }
@@ -230,13 +388,157 @@ public class ResponsiveUIValidator {
         return !((boolean) jsonResults.get(ERROR_KEY));
     }
 
+    /**
+     * Validate layout spec on every breakpoint. Window is resized once per breakpoint, all geometry of the spec is captured with one request
+     * and the original window size is restored at the end
+     *
+     * @param breakpoints window sizes
+     * @param spec        function that builds validation on the passed validator, e.g. v -> v.findElement(header, "Header").minWidth(300)
+     * @return List<BreakpointResult> in order of breakpoints
+     */
+    public List<BreakpointResult> validateBreakpoints(List<Dimension> breakpoints, Function<ResponsiveUIValidator, ? extends ResponsiveUIValidator> spec) {
+        return validateBreakpoints(breakpoints, Collections.singletonMap(scenarioName, spec));
+    }
+
+    /**
+     * Validate several named layout specs on every breakpoint. Window is resized once per breakpoint
+     *
+     * @param breakpoints window sizes
+     * @param specs       named functions that build validation on the passed validator
+     * @return List<BreakpointResult> ordered by breakpoint, then by spec
+     */
+    public List<BreakpointResult> validateBreakpoints(List<Dimension> breakpoints, Map<String, Function<ResponsiveUIValidator, ? extends ResponsiveUIValidator>> specs) {
+        if (driver == null) {
+            throw new IllegalStateException("Validation of breakpoints requires live driver");
+        }
+        List<BreakpointResult> results = new ArrayList<>();
+        WebDriver.Window window = driver.manage().window();
+        Dimension originalSize = window.getSize();
+        try {
+            for (Dimension breakpoint : breakpoints) {
+                long start = System.currentTimeMillis();
+                window.setSize(breakpoint);
+                ViewportMetrics.invalidate(driver);
+                long resizeTime = System.currentTimeMillis() - start;
+
+                for (Map.Entry<String, Function<ResponsiveUIValidator, ? extends ResponsiveUIValidator>> spec : specs.entrySet()) {
+                    long specStart = System.currentTimeMillis();
+                    ResponsiveUIValidator context = new ResponsiveUIValidator(this);
+                    context.scenarioName = String.format("%s [%dx%d]", spec.getKey(), breakpoint.getWidth(), breakpoint.getHeight());
+                    ResponsiveUIValidator validator = spec.getValue().apply(context);
+                    boolean passed = validator.validate();
+                    results.add(new BreakpointResult(breakpoint, spec.getKey(), passed, validator.getErrorMessages(), resizeTime + System.currentTimeMillis() - specStart));
+                }
+            }
+        } finally {
+            window.setSize(originalSize);
+            ViewportMetrics.invalidate(driver);
+        }
+        return results;
+    }
+
+    /**
+     * Messages of failed rules of the last validate() call
+     *
+     * @return List<String>
+     */
+    public List<String> getErrorMessages() {
+        List<String> messages = new ArrayList<>(failures.size());
+        for (Failure failure : failures) {
+            messages.add(failure.message);
+        }
+        return messages;
+    }
+
+    /**
+     * Record rule that will be evaluated in validate()
+     *
+     * @param check
+     * @param elements elements which geometry is used by the rule in addition to root element(s)
+     */
+    void rule(Runnable check, WebElement... elements) {
+        plan.add(check, Arrays.asList(elements));
+    }
+
+    void rule(Runnable check, Collection<WebElement> elements) {
+        plan.add(check, elements);
+    }
+
+    /**
+     * Record rule that does not depend on geometry and is evaluated on every validate() call
+     *
+     * @param check
+     */
+    void uncachedRule(Runnable check) {
+        plan.addUncached(check);
+    }
+
+    /**
+     * Indexes in [0, count) for which the check fails, in ascending order. With parallel evaluation enabled large lists are
+     * checked across cores; callers add messages for the returned indexes serially, so order of the report does not change
+     *
+     * @param elements elements used by the check, their geometry is captured before checks start
+     * @param count
+     * @param check    returns true if the element(s) at index pass
+     * @return int[]
+     */
+    int[] failingIndexes(List<WebElement> elements, int count, IntPredicate check) {
+        IntStream indexes = IntStream.range(0, Math.max(count, 0));
+        if (parallelEvaluation && count >= PARALLEL_THRESHOLD) {
+            captureGeometry(elements);
+            indexes = indexes.parallel();
+        }
+        return indexes.filter(i -> !check.test(i)).toArray();
+    }
+
+    private void evaluatePlan() {
+        List<WebElement> elements = new ArrayList<>();
+        elements.add(rootElement);
+        if (rootElements != null) {
+            elements.addAll(rootElements);
+        }
+        elements.addAll(plan.elements());
+
+        GeometrySnapshot previous = geometry;
+        ViewportMetrics viewport;
+        if (pageGeometry != null) {
+            geometry = GeometrySnapshot.capture(driver, elements);
+            viewport = pageGeometry.getViewport();
+        } else {
+            geometry = GeometrySnapshot.captureWithViewport(driver, elements);
+            viewport = geometry.getViewport();
+        }
+        pageWidth = viewport.getWidth();
+        pageHeight = viewport.getHeight();
+        currentZoom = viewport.getZoom();
+        units = PX;
+
+        Set<WebElement> changed = geometry.changedSince(previous);
+        List<WebElement> roots = rootElements != null ? rootElements : Collections.singletonList(rootElement);
+        int evaluated = 0;
+
+        failures = new ArrayList<>(Math.max(failures.size(), 16));
+        for (ValidationPlan.Rule rule : plan.rules()) {
+            if (rule.isAffectedBy(changed, roots)) {
+                int from = failures.size();
+                rule.check.run();
+                rule.failures = new ArrayList<>(failures.subList(from, failures.size()));
+                evaluated++;
+            } else {
+                failures.addAll(rule.failures);
+            }
+        }
+        LOG.debug(String.format("Evaluated %d of %d rules, geometry of %d elements changed", evaluated, plan.rules().size(), changed.size()));
+    }
+
     /**
      * Call method to generate HTML report
      */
     public void generateReport() {
-        if (withReport && !jsonFiles.isEmpty()) {
+        List<String> jsonFiles = awaitResults();
+        if (!jsonFiles.isEmpty()) {
             try {
-                new HtmlReportBuilder().buildReport(jsonFiles);
+                new HtmlReportBuilder().buildReport("result", jsonFiles, reportCollector.getSink());
             } catch (IOException | ParseException | InterruptedException e) {
                 e.printStackTrace();
             }
@@ -249,135 +551,164 @@ public class ResponsiveUIValidator {
      * @param name
      */
     public void generateReport(String name) {
-        if (withReport && !jsonFiles.isEmpty()) {
+        List<String> jsonFiles = awaitResults();
+        if (!jsonFiles.isEmpty()) {
             try {
-                new HtmlReportBuilder().buildReport(name, jsonFiles);
+                new HtmlReportBuilder().buildReport(name, jsonFiles, reportCollector.getSink());
             } catch (IOException | ParseException | InterruptedException e) {
                 e.printStackTrace();
             }
         }
     }
 
-    void drawScreenshot() {
-        if (img != null) {
-            g = img.createGraphics();
-
-            drawRoot(rootColor);
-
-            for (Object obj : errorMessage) {
-                JSONObject det = (JSONObject) obj;
-                JSONObject details = (JSONObject) det.get(REASON);
-                JSONObject numE = (JSONObject) details.get(ELEMENT);
-
-                if (numE != null) {
-                    float x = (float) numE.get(X);
-                    float y = (float) numE.get(Y);
-                    float width = (float) numE.get(WIDTH);
-                    float height = (float) numE.get(HEIGHT);
-
-                    g.setColor(highlightedElementsColor);
-                    g.setStroke(new BasicStroke(2));
-                    g.drawRect(retinaValue((int) x), retinaValue(mobileY((int) y)), retinaValue((int) width), retinaValue((int) height));
-                }
+    /**
+     * Wait until results and screenshots that are being written by validations of the collector are on disk, then take the results
+     *
+     * @return List<String> references of the results in the sink
+     */
+    private List<String> awaitResults() {
+        try {
+            if (!reportCollector.awaitPending(REPORT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Not all results were written in " + REPORT_TIMEOUT_SECONDS + " seconds, report may miss some of them");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while waiting for results, report may miss some of them");
+        }
+        return reportCollector.drain();
+    }
 
-            try {
-                ImageIO.write(img, "png", screenshot);
-                File file = new File(TARGET_AUTOMOTION_IMG + rootElementReadableName.replace(" ", "") + "-" + screenshot.getName());
-                FileUtils.copyFile(screenshot, file);
-            } catch (IOException e) {
-                e.printStackTrace();
+    /**
+     * Copy everything needed to draw the screenshot, so it can be processed in background while this validator is reused.
+     * Driver is queried here (mobile context), never by the pipeline
+     */
+    private ScreenshotAnnotation annotation(byte[] screenshot, File target) {
+        int[] root = {getX(rootElement), getY(rootElement), getWidth(rootElement), getHeight(rootElement)};
+        ScreenshotAnnotation annotation = new ScreenshotAnnotation(screenshot, target, currentZoom, mobileY(0), root, rootColor, highlightedElementsColor, linesColor)
+                .withOffsetLines(drawLeftOffsetLine, drawRightOffsetLine, drawTopOffsetLine, drawBottomOffsetLine)
+                .withCompressionQuality(screenshotCompressionQuality);
+
+        for (Failure failure : failures) {
+            if (failure.hasElement) {
+                annotation.highlight(failure.x, failure.y, failure.width, failure.height);
             }
-        } else {
-            LOG.error("Taking of screenshot was failed for some reason.");
         }
+        return annotation;
     }
 
     void validateElementsAreNotOverlapped(List<WebElement> rootElements) {
-        for (WebElement el1 : rootElements) {
-            for (WebElement el2 : rootElements) {
-                if (!el1.equals(el2)) {
-                    if (elementsAreOverlapped(el1, el2)) {
-                        putJsonDetailsWithElement("Elements are overlapped", el1);
-                        break;
-                    }
-                }
+        List<Rectangle> rectangles = new ArrayList<>(rootElements.size());
+        for (WebElement element : rootElements) {
+            rectangles.add(rect(element));
+        }
+
+        boolean[] overlapped = new boolean[rootElements.size()];
+        for (int[] pair : overlapDetector.findOverlappingPairs(rectangles)) {
+            if (!rootElements.get(pair[0]).equals(rootElements.get(pair[1]))) {
+                overlapped[pair[0]] = true;
+                overlapped[pair[1]] = true;
+            }
+        }
+
+        for (int i = 0; i < overlapped.length; i++) {
+            if (overlapped[i]) {
+                putJsonDetailsWithElement("Elements are overlapped", rootElements.get(i));
             }
         }
     }
 
     void validateGridAlignment(int columns, int rows) {
-        if (rootElements != null) {
-            ConcurrentSkipListMap<Integer, AtomicLong> map = new ConcurrentSkipListMap<>();
-            for (WebElement el : rootElements) {
-                Integer y = getY(el);
+        validateGridAlignment(columns, rows, 0, false);
+    }
 
-                map.putIfAbsent(y, new AtomicLong(0));
-                map.get(y).incrementAndGet();
+    /**
+     * @param columns          expected amount of elements in a row, 0 to skip the check
+     * @param rows             expected amount of rows, 0 to skip the check
+     * @param tolerance        max difference in pixels between edges of elements in the same row or column
+     * @param reportIrregular  report elements that are not placed in the column matching their position in a row,
+     *                         and gutters between rows or columns that differ by more than tolerance
+     */
+    void validateGridAlignment(int columns, int rows, int tolerance, boolean reportIrregular) {
+        if (rootElements != null) {
+            int size = rootElements.size();
+            int[] x = new int[size];
+            int[] y = new int[size];
+            int[] width = new int[size];
+            int[] height = new int[size];
+            for (int i = 0; i < size; i++) {
+                Rectangle rect = rect(rootElements.get(i));
+                x[i] = rect.getX();
+                y[i] = rect.getY();
+                width[i] = rect.getWidth();
+                height[i] = rect.getHeight();
             }
+            GridAnalyzer.Layout layout = GridAnalyzer.analyze(x, y, width, height, tolerance);
 
-            int mapSize = map.size();
             if (rows > 0) {
-                if (mapSize != rows) {
-                    putJsonDetailsWithoutElement(String.format("Elements in a grid are not aligned properly. Looks like grid has wrong amount of rows. Expected is %d. Actual is %d", rows, mapSize));
+                if (layout.rows != rows) {
+                    putJsonDetailsWithoutElement(String.format("Elements in a grid are not aligned properly. Looks like grid has wrong amount of rows. Expected is %d. Actual is %d", rows, layout.rows));
                 }
             }
 
             if (columns > 0) {
                 int errorLastLine = 0;
-                int rowCount = 1;
-                for (Map.Entry<Integer, AtomicLong> entry : map.entrySet()) {
-                    if (rowCount <= mapSize) {
-                        int actualInARow = entry.getValue().intValue();
-                        if (actualInARow != columns) {
-                            errorLastLine++;
-                            if (errorLastLine > 1) {
-                                putJsonDetailsWithoutElement(String.format("Elements in a grid are not aligned properly in row #%d. Expected %d elements in a row. Actually it's %d", rowCount, columns, actualInARow));
-                            }
+                for (int row = 0; row < layout.rows; row++) {
+                    int actualInARow = layout.rowSizes[row];
+                    if (actualInARow != columns) {
+                        errorLastLine++;
+                        if (errorLastLine > 1) {
+                            putJsonDetailsWithoutElement(String.format("Elements in a grid are not aligned properly in row #%d. Expected %d elements in a row. Actually it's %d", row + 1, columns, actualInARow));
                         }
-                        rowCount++;
                     }
                 }
             }
+
+            if (reportIrregular) {
+                for (int i : layout.misalignedCells) {
+                    putJsonDetailsWithElement(String.format("Element #%d is not aligned with the column of its position in a row", i + 1), rootElements.get(i));
+                }
+                if (!GridAnalyzer.isEven(layout.rowGutters, tolerance)) {
+                    putJsonDetailsWithoutElement(String.format("Gutters between rows of a grid are not equal: %s", Arrays.toString(layout.rowGutters)));
+                }
+                if (!GridAnalyzer.isEven(layout.columnGutters, tolerance)) {
+                    putJsonDetailsWithoutElement(String.format("Gutters between columns of a grid are not equal: %s", Arrays.toString(layout.columnGutters)));
+                }
+            }
         }
     }
 
     void validateRightOffsetForChunk(List<WebElement> elements) {
-        for (int i = 0; i < elements.size() - 1; i++) {
-            if (!elementsHaveEqualRightOffset(elements.get(i), elements.get(i + 1))) {
-                putJsonDetailsWithElement(String.format("Element #%d has not the same right offset as element #%d", i + 1, i + 2), elements.get(i + 1));
-            }
+        int[] failed = failingIndexes(elements, elements.size() - 1, k -> elementsHaveEqualRightOffset(elements.get(k), elements.get(k + 1)));
+        for (int i : failed) {
+            putJsonDetailsWithElement(String.format("Element #%d has not the same right offset as element #%d", i + 1, i + 2), elements.get(i + 1));
         }
     }
 
     void validateLeftOffsetForChunk(List<WebElement> elements) {
-        for (int i = 0; i < elements.size() - 1; i++) {
-            if (!elementsHaveEqualLeftOffset(elements.get(i), elements.get(i + 1))) {
-                putJsonDetailsWithElement(String.format("Element #%d has not the same left offset as element #%d", i + 1, i + 2), elements.get(i + 1));
-            }
+        int[] failed = failingIndexes(elements, elements.size() - 1, k -> elementsHaveEqualLeftOffset(elements.get(k), elements.get(k + 1)));
+        for (int i : failed) {
+            putJsonDetailsWithElement(String.format("Element #%d has not the same left offset as element #%d", i + 1, i + 2), elements.get(i + 1));
         }
     }
 
     void validateTopOffsetForChunk(List<WebElement> elements) {
-        for (int i = 0; i < elements.size() - 1; i++) {
-            if (!elementsHaveEqualTopOffset(elements.get(i), elements.get(i + 1))) {
-                putJsonDetailsWithElement(String.format("Element #%d has not the same top offset as element #%d", i + 1, i + 2), elements.get(i + 1));
-            }
+        int[] failed = failingIndexes(elements, elements.size() - 1, k -> elementsHaveEqualTopOffset(elements.get(k), elements.get(k + 1)));
+        for (int i : failed) {
+            putJsonDetailsWithElement(String.format("Element #%d has not the same top offset as element #%d", i + 1, i + 2), elements.get(i + 1));
         }
     }
 
     void validateBottomOffsetForChunk(List<WebElement> elements) {
-        for (int i = 0; i < elements.size() - 1; i++) {
-            if (!elementsHaveEqualBottomOffset(elements.get(i), elements.get(i + 1))) {
-                putJsonDetailsWithElement(String.format("Element #%d has not the same bottom offset as element #%d", i + 1, i + 2), elements.get(i + 1));
-            }
+        int[] failed = failingIndexes(elements, elements.size() - 1, k -> elementsHaveEqualBottomOffset(elements.get(k), elements.get(k + 1)));
+        for (int i : failed) {
+            putJsonDetailsWithElement(String.format("Element #%d has not the same bottom offset as element #%d", i + 1, i + 2), elements.get(i + 1));
         }
     }
 
     void validateRightOffsetForElements(WebElement element, String readableName) {
         if (!element.equals(rootElement)) {
             if (!elementsHaveEqualRightOffset(rootElement, element)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not the same right offset as element '%s'", rootElementReadableName, readableName), element);
+                putJsonDetailsWithElement(String.format("Element '%s' has not the same right offset as element '%s'", rootElementReadableName, readableName(element, readableName)), element);
             }
         }
     }
@@ -385,7 +716,7 @@ public class ResponsiveUIValidator {
     void validateLeftOffsetForElements(WebElement element, String readableName) {
         if (!element.equals(rootElement)) {
             if (!elementsHaveEqualLeftOffset(rootElement, element)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not the same left offset as element '%s'", rootElementReadableName, readableName), element);
+                putJsonDetailsWithElement(String.format("Element '%s' has not the same left offset as element '%s'", rootElementReadableName, readableName(element, readableName)), element);
             }
         }
     }
@@ -393,7 +724,7 @@ public class ResponsiveUIValidator {
     void validateTopOffsetForElements(WebElement element, String readableName) {
         if (!element.equals(rootElement)) {
             if (!elementsHaveEqualTopOffset(rootElement, element)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not the same top offset as element '%s'", rootElementReadableName, readableName), element);
+                putJsonDetailsWithElement(String.format("Element '%s' has not the same top offset as element '%s'", rootElementReadableName, readableName(element, readableName)), element);
             }
         }
     }
@@ -401,7 +732,7 @@ public class ResponsiveUIValidator {
     void validateBottomOffsetForElements(WebElement element, String readableName) {
         if (!element.equals(rootElement)) {
             if (!elementsHaveEqualBottomOffset(rootElement, element)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not the same bottom offset as element '%s'", rootElementReadableName, readableName), element);
+                putJsonDetailsWithElement(String.format("Element '%s' has not the same bottom offset as element '%s'", rootElementReadableName, readableName(element, readableName)), element);
             }
         }
     }
@@ -409,7 +740,7 @@ public class ResponsiveUIValidator {
     void validateNotOverlappingWithElements(WebElement element, String readableName) {
         if (!element.equals(rootElement)) {
             if (elementsAreOverlapped(rootElement, element)) {
-                putJsonDetailsWithElement(String.format("Element '%s' is overlapped with element '%s' but should not", rootElementReadableName, readableName), element);
+                putJsonDetailsWithElement(String.format("Element '%s' is overlapped with element '%s' but should not", rootElementReadableName, readableName(element, readableName)), element);
             }
         }
     }
@@ -417,7 +748,7 @@ public class ResponsiveUIValidator {
     void validateOverlappingWithElements(WebElement element, String readableName) {
         if (!element.equals(rootElement)) {
             if (!elementsAreOverlapped(rootElement, element)) {
-                putJsonDetailsWithElement(String.format("Element '%s' is not overlapped with element '%s' but should be", rootElementReadableName, readableName), element);
+                putJsonDetailsWithElement(String.format("Element '%s' is not overlapped with element '%s' but should be", rootElementReadableName, readableName(element, readableName)), element);
             }
         }
     }
@@ -472,7 +803,7 @@ public class ResponsiveUIValidator {
         if (!element.equals(rootElement)) {
             int h = getHeight(element);
             if (h != getHeight(rootElement)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not the same height as %s. Height of '%s' is %spx. Height of element is %spx", rootElementReadableName, readableName, rootElementReadableName, getHeight(rootElement), h), element);
+                putJsonDetailsWithElement(String.format("Element '%s' has not the same height as %s. Height of '%s' is %spx. Height of element is %spx", rootElementReadableName, readableName(element, readableName), rootElementReadableName, getHeight(rootElement), h), element);
             }
         }
     }
@@ -493,7 +824,7 @@ public class ResponsiveUIValidator {
         if (!element.equals(rootElement)) {
             int w = getWidth(element);
             if (w != getWidth(rootElement)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not the same width as %s. Width of '%s' is %spx. Width of element is %spx", rootElementReadableName, readableName, rootElementReadableName, getWidth(rootElement), w), element);
+                putJsonDetailsWithElement(String.format("Element '%s' has not the same width as %s. Width of '%s' is %spx. Width of element is %spx", rootElementReadableName, readableName(element, readableName), rootElementReadableName, getWidth(rootElement), w), element);
             }
         }
     }
@@ -503,36 +834,23 @@ public class ResponsiveUIValidator {
             int h = getHeight(element);
             int w = getWidth(element);
             if (h != getHeight(rootElement) || w != getWidth(rootElement)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not the same size as %s. Size of '%s' is %spx x %spx. Size of element is %spx x %spx", rootElementReadableName, readableName, rootElementReadableName, getWidth(rootElement), getHeight(rootElement), w, h), element);
+                putJsonDetailsWithElement(String.format("Element '%s' has not the same size as %s. Size of '%s' is %spx x %spx. Size of element is %spx x %spx", rootElementReadableName, readableName(element, readableName), rootElementReadableName, getWidth(rootElement), getHeight(rootElement), w, h), element);
             }
         }
     }
 
     void validateSameSize(List<WebElement> elements, int type) {
-        for (int i = 0; i < elements.size() - 1; i++) {
-            int h1 = getHeight(elements.get(i));
-            int w1 = getWidth(elements.get(i));
-            int h2 = getHeight(elements.get(i + 1));
-            int w2 = getWidth(elements.get(i + 1));
-            switch (type) {
-                case 0:
-                    if (h1 != h2 || w1 != w2) {
-                        putJsonDetailsWithElement(String.format("Element #%d has different size. Element size is: [%d, %d]", (i + 1), getWidth(elements.get(i)), getHeight(elements.get(i))), elements.get(i));
-                        putJsonDetailsWithElement(String.format("Element #%d has different size. Element size is: [%d, %d]", (i + 2), getWidth(elements.get(i + 1)), getHeight(elements.get(i + 1))), elements.get(i + 1));
-                    }
-                    break;
-                case 1:
-                    if (w1 != w2) {
-                        putJsonDetailsWithElement(String.format("Element #%d has different width. Element width is: [%d, %d]", (i + 1), getWidth(elements.get(i)), getHeight(elements.get(i))), elements.get(i));
-                        putJsonDetailsWithElement(String.format("Element #%d has different width. Element width is: [%d, %d]", (i + 2), getWidth(elements.get(i + 1)), getHeight(elements.get(i + 1))), elements.get(i + 1));
-                    }
-                    break;
-                case 2:
-                    if (h1 != h2) {
-                        putJsonDetailsWithElement(String.format("Element #%d has different height. Element height is: [%d, %d]", (i + 1), getWidth(elements.get(i)), getHeight(elements.get(i))), elements.get(i));
-                        putJsonDetailsWithElement(String.format("Element #%d has different height. Element height is: [%d, %d]", (i + 2), getWidth(elements.get(i + 1)), getHeight(elements.get(i + 1))), elements.get(i + 1));
-                    }
-            }
+        int[] failed = failingIndexes(elements, elements.size() - 1, k -> {
+            int h1 = getHeight(elements.get(k));
+            int w1 = getWidth(elements.get(k));
+            int h2 = getHeight(elements.get(k + 1));
+            int w2 = getWidth(elements.get(k + 1));
+            return !(type == 0 ? h1 != h2 || w1 != w2 : type == 1 ? w1 != w2 : h1 != h2);
+        });
+        String property = type == 0 ? "size" : type == 1 ? "width" : "height";
+        for (int i : failed) {
+            putJsonDetailsWithElement(String.format("Element #%d has different %s. Element %s is: [%d, %d]", (i + 1), property, property, getWidth(elements.get(i)), getHeight(elements.get(i))), elements.get(i));
+            putJsonDetailsWithElement(String.format("Element #%d has different %s. Element %s is: [%d, %d]", (i + 2), property, property, getWidth(elements.get(i + 1)), getHeight(elements.get(i + 1))), elements.get(i + 1));
         }
     }
 
@@ -541,36 +859,23 @@ public class ResponsiveUIValidator {
             int h = getHeight(element);
             int w = getWidth(element);
             if (h == getHeight(rootElement) && w == getWidth(rootElement)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has the same size as %s. Size of '%s' is %spx x %spx. Size of element is %spx x %spx", rootElementReadableName, readableName, rootElementReadableName, getWidth(rootElement), getHeight(rootElement), w, h), element);
+                putJsonDetailsWithElement(String.format("Element '%s' has the same size as %s. Size of '%s' is %spx x %spx. Size of element is %spx x %spx", rootElementReadableName, readableName(element, readableName), rootElementReadableName, getWidth(rootElement), getHeight(rootElement), w, h), element);
             }
         }
     }
 
     void validateNotSameSize(List<WebElement> elements, int type) {
-        for (int i = 0; i < elements.size() - 1; i++) {
-            int h1 = getHeight(elements.get(i));
-            int w1 = getWidth(elements.get(i));
-            int h2 = getHeight(elements.get(i + 1));
-            int w2 = getWidth(elements.get(i + 1));
-            switch (type) {
-                case 0:
-                    if (h1 == h2 && w1 == w2) {
-                        putJsonDetailsWithElement(String.format("Element #%d has same size. Element size is: [%d, %d]", (i + 1), getWidth(elements.get(i)), getHeight(elements.get(i))), elements.get(i));
-                        putJsonDetailsWithElement(String.format("Element #%d has same size. Element size is: [%d, %d]", (i + 2), getWidth(elements.get(i + 1)), getHeight(elements.get(i + 1))), elements.get(i + 1));
-                    }
-                    break;
-                case 1:
-                    if (w1 == w2) {
-                        putJsonDetailsWithElement(String.format("Element #%d has same width. Element width is: [%d, %d]", (i + 1), getWidth(elements.get(i)), getHeight(elements.get(i))), elements.get(i));
-                        putJsonDetailsWithElement(String.format("Element #%d has same width. Element width is: [%d, %d]", (i + 2), getWidth(elements.get(i + 1)), getHeight(elements.get(i + 1))), elements.get(i + 1));
-                    }
-                    break;
-                case 2:
-                    if (h1 == h2) {
-                        putJsonDetailsWithElement(String.format("Element #%d has same height. Element height is: [%d, %d]", (i + 1), getWidth(elements.get(i)), getHeight(elements.get(i))), elements.get(i));
-                        putJsonDetailsWithElement(String.format("Element #%d has same height. Element height is: [%d, %d]", (i + 2), getWidth(elements.get(i + 1)), getHeight(elements.get(i + 1))), elements.get(i + 1));
-                    }
-            }
+        int[] failed = failingIndexes(elements, elements.size() - 1, k -> {
+            int h1 = getHeight(elements.get(k));
+            int w1 = getWidth(elements.get(k));
+            int h2 = getHeight(elements.get(k + 1));
+            int w2 = getWidth(elements.get(k + 1));
+            return !(type == 0 ? h1 == h2 && w1 == w2 : type == 1 ? w1 == w2 : h1 == h2);
+        });
+        String property = type == 0 ? "size" : type == 1 ? "width" : "height";
+        for (int i : failed) {
+            putJsonDetailsWithElement(String.format("Element #%d has same %s. Element %s is: [%d, %d]", (i + 1), property, property, getWidth(elements.get(i)), getHeight(elements.get(i))), elements.get(i));
+            putJsonDetailsWithElement(String.format("Element #%d has same %s. Element %s is: [%d, %d]", (i + 2), property, property, getWidth(elements.get(i + 1)), getHeight(elements.get(i + 1))), elements.get(i + 1));
         }
     }
 
@@ -583,11 +888,7 @@ public class ResponsiveUIValidator {
     }
 
     void validateBelowElement(WebElement element) {
-        List<WebElement> elements = new ArrayList<>();
-        elements.add(rootElement);
-        elements.add(element);
-
-        if (!PageValidator.elementsAreAlignedVertically(elements)) {
+        if (!elementIsBelow(element, rootElement)) {
             putJsonDetailsWithoutElement("Below element aligned not properly");
         }
     }
@@ -602,11 +903,7 @@ public class ResponsiveUIValidator {
     }
 
     void validateAboveElement(WebElement element) {
-        List<WebElement> elements = new ArrayList<>();
-        elements.add(element);
-        elements.add(rootElement);
-
-        if (!PageValidator.elementsAreAlignedVertically(elements)) {
+        if (!elementIsBelow(rootElement, element)) {
             putJsonDetailsWithoutElement("Above element aligned not properly");
         }
     }
@@ -620,11 +917,7 @@ public class ResponsiveUIValidator {
     }
 
     void validateRightElement(WebElement element) {
-        List<WebElement> elements = new ArrayList<>();
-        elements.add(rootElement);
-        elements.add(element);
-
-        if (!PageValidator.elementsAreAlignedHorizontally(elements)) {
+        if (!elementIsRightOf(element, rootElement)) {
             putJsonDetailsWithoutElement("Right element aligned not properly");
         }
     }
@@ -639,15 +932,41 @@ public class ResponsiveUIValidator {
     }
 
     void validateLeftElement(WebElement leftElement) {
-        List<WebElement> elements = new ArrayList<>();
-        elements.add(leftElement);
-        elements.add(rootElement);
-
-        if (!PageValidator.elementsAreAlignedHorizontally(elements)) {
+        if (!elementIsRightOf(rootElement, leftElement)) {
             putJsonDetailsWithoutElement("Left element aligned not properly");
         }
     }
 
+    void validateCssValue(String cssProperty, String... args) {
+        String cssValue = rootElement.getCssValue(cssProperty);
+
+        if (!cssValue.equals("")) {
+            for (String val : args) {
+                val = !val.startsWith("#") ? val : SystemHelper.hexStringToARGB(val);
+                if (!TextFinder.textIsFound(val, cssValue)) {
+                    putJsonDetailsWithoutElement(String.format("Expected value of '%s' is '%s'. Actual value is '%s'", cssProperty, val, cssValue));
+                }
+            }
+        } else {
+            putJsonDetailsWithoutElement(String.format("Element '%s' does not have css property '%s'", rootElementReadableName, cssProperty));
+        }
+    }
+
+    void validateWithoutCssValue(String cssProperty, String... args) {
+        String cssValue = rootElement.getCssValue(cssProperty);
+
+        if (!cssValue.equals("")) {
+            for (String val : args) {
+                val = !val.startsWith("#") ? val : SystemHelper.hexStringToARGB(val);
+                if (TextFinder.textIsFound(val, cssValue)) {
+                    putJsonDetailsWithoutElement(String.format("CSS property '%s' should not contain value '%s'. Actual value is '%s'", cssProperty, val, cssValue));
+                }
+            }
+        } else {
+            putJsonDetailsWithoutElement(String.format("Element '%s' does not have css property '%s'", rootElementReadableName, cssProperty));
+        }
+    }
+
     void validateEqualLeftRightOffset(WebElement element, String rootElementReadableName) {
         if (!elementHasEqualLeftRightOffset(element)) {
             putJsonDetailsWithElement(String.format("Element '%s' has not equal left and right offset. Left offset is %dpx, right is %dpx", rootElementReadableName, getX(element), getRightOffset(element)), element);
@@ -661,69 +980,32 @@ public class ResponsiveUIValidator {
     }
 
     void validateEqualLeftRightOffset(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            if (!elementHasEqualLeftRightOffset(element)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not equal left and right offset. Left offset is %dpx, right is %dpx", getFormattedMessage(element), getX(element), getRightOffset(element)), element);
-            }
+        for (int i : failingIndexes(elements, elements.size(), k -> elementHasEqualLeftRightOffset(elements.get(k)))) {
+            WebElement element = elements.get(i);
+            putJsonDetailsWithElement(String.format("Element '%s' has not equal left and right offset. Left offset is %dpx, right is %dpx", getFormattedMessage(element), getX(element), getRightOffset(element)), element);
         }
     }
 
     void validateEqualTopBottomOffset(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            if (!elementHasEqualTopBottomOffset(element)) {
-                putJsonDetailsWithElement(String.format("Element '%s' has not equal top and bottom offset. Top offset is %dpx, bottom is %dpx", getFormattedMessage(element), getY(element), getBottomOffset(element)), element);
-            }
-        }
-    }
-
-    void drawRoot(Color color) {
-        g.setColor(color);
-        g.setStroke(new BasicStroke(2));
-        g.drawRect(retinaValue(getX(rootElement)), retinaValue(mobileY(getY(rootElement))), retinaValue(getWidth(rootElement)), retinaValue(getHeight(rootElement)));
-        //g.fillRect(retinaValue(xRoot), retinaValue((yRoot), retinaValue(widthRoot), retinaValue(heightRoot));
-
-        Stroke dashed = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{9}, 0);
-        g.setStroke(dashed);
-        g.setColor(linesColor);
-        if (drawLeftOffsetLine) {
-            g.drawLine(retinaValue(getX(rootElement)), 0, retinaValue(getX(rootElement)), retinaValue(img.getHeight()));
-        }
-        if (drawRightOffsetLine) {
-            g.drawLine(retinaValue(getX(rootElement) + getWidth(rootElement)), 0, retinaValue(getX(rootElement) + getWidth(rootElement)), retinaValue(img.getHeight()));
-        }
-        if (drawTopOffsetLine) {
-            g.drawLine(0, retinaValue(mobileY(getY(rootElement))), retinaValue(img.getWidth()), retinaValue(getY(rootElement)));
-        }
-        if (drawBottomOffsetLine) {
-            g.drawLine(0, retinaValue(mobileY(getY(rootElement) + getHeight(rootElement))), retinaValue(img.getWidth()), retinaValue(getY(rootElement) + getHeight(rootElement)));
+        for (int i : failingIndexes(elements, elements.size(), k -> elementHasEqualTopBottomOffset(elements.get(k)))) {
+            WebElement element = elements.get(i);
+            putJsonDetailsWithElement(String.format("Element '%s' has not equal top and bottom offset. Top offset is %dpx, bottom is %dpx", getFormattedMessage(element), getY(element), getBottomOffset(element)), element);
         }
     }
 
     void putJsonDetailsWithoutElement(String message) {
-        JSONObject details = new JSONObject();
-        JSONObject mes = new JSONObject();
-        mes.put(MESSAGE, message);
-        details.put(REASON, mes);
-        errorMessage.add(details);
+        failures.add(new Failure(message));
     }
 
     private void putJsonDetailsWithElement(String message, WebElement element) {
-        float xContainer = getX(element);
-        float yContainer = getY(element);
-        float widthContainer = getWidth(element);
-        float heightContainer = getHeight(element);
-
-        JSONObject details = new JSONObject();
-        JSONObject elDetails = new JSONObject();
-        elDetails.put(X, xContainer);
-        elDetails.put(Y, yContainer);
-        elDetails.put(WIDTH, widthContainer);
-        elDetails.put(HEIGHT, heightContainer);
-        JSONObject mes = new JSONObject();
-        mes.put(MESSAGE, message);
-        mes.put(ELEMENT, elDetails);
-        details.put(REASON, mes);
-        errorMessage.add(details);
+        failures.add(new Failure(message, rect(element)));
+    }
+
+    /**
+     * Readable name of element for the message. List based rules pass null to describe element only when the rule fails
+     */
+    String readableName(WebElement element, String readableName) {
+        return readableName != null ? readableName : getFormattedMessage(element);
     }
 
     int getConvertedInt(int i, boolean horizontal) {
@@ -751,6 +1033,10 @@ public class ResponsiveUIValidator {
     }
 
     int retinaValue(int value) {
+        return retinaValue(value, currentZoom);
+    }
+
+    static int retinaValue(int value, String currentZoom) {
         if (!isMobile()) {
             int zoom = Integer.parseInt(currentZoom.replace("%", ""));
             if (zoom > 100) {
@@ -786,7 +1072,7 @@ public class ResponsiveUIValidator {
     }
 
     int mobileY(int value) {
-        if (isMobile() && ((AppiumDriver) driver).getContext().startsWith("WEB")) {
+        if (isMobile() && driver instanceof AppiumDriver && ((AppiumDriver) driver).getContext().startsWith("WEB")) {
             if (isIOS()) {
                 if (isMobileTopBar) {
                     return value + 20;
@@ -807,56 +1093,6 @@ public class ResponsiveUIValidator {
         }
     }
 
-    long getPageWidth() {
-        JavascriptExecutor executor = (JavascriptExecutor) driver;
-        if (!isMobile()) {
-            if (isFirefox()) {
-                currentZoom = (String) executor.executeScript("document.body.style.MozTransform");
-            } else {
-                currentZoom = (String) executor.executeScript("return document.body.style.zoom;");
-            }
-            if (currentZoom == null || currentZoom.equals("100%") || currentZoom.equals("")) {
-                currentZoom = "100%";
-                return (long) executor.executeScript("if (self.innerWidth) {return self.innerWidth;} if (document.documentElement && document.documentElement.clientWidth) {return document.documentElement.clientWidth;}if (document.body) {return document.body.clientWidth;}");
-            } else {
-                return (long) executor.executeScript("return document.getElementsByTagName('body')[0].offsetWidth");
-            }
-        } else {
-            if (isNativeMobileContext() || isIOS()) {
-                return driver.manage().window().getSize().getWidth();
-            } else {
-                return (long) executor.executeScript("if (self.innerWidth) {return self.innerWidth;} if (document.documentElement && document.documentElement.clientWidth) {return document.documentElement.clientWidth;}if (document.body) {return document.body.clientWidth;}");
-            }
-        }
-    }
-
-    long getPageHeight() {
-        JavascriptExecutor executor = (JavascriptExecutor) driver;
-        if (!isMobile()) {
-            if (isFirefox()) {
-                currentZoom = (String) executor.executeScript("document.body.style.MozTransform");
-            } else {
-                currentZoom = (String) executor.executeScript("return document.body.style.zoom;");
-            }
-            if (currentZoom == null || currentZoom.equals("100%") || currentZoom.equals("")) {
-                currentZoom = "100%";
-                return (long) executor.executeScript("if (self.innerHeight) {return self.innerHeight;} if (document.documentElement && document.documentElement.clientHeight) {return document.documentElement.clientHeight;}if (document.body) {return document.body.clientHeight;}");
-            } else {
-                return (long) executor.executeScript("return document.getElementsByTagName('body')[0].offsetHeight");
-            }
-        } else {
-            if (isNativeMobileContext() || isIOS()) {
-                return driver.manage().window().getSize().getHeight();
-            } else {
-                return (long) executor.executeScript("if (self.innerHeight) {return self.innerHeight;} if (document.documentElement && document.documentElement.clientHeight) {return document.documentElement.clientHeight;}if (document.body) {return document.body.clientHeight;}");
-            }
-        }
-    }
-
-    private boolean isNativeMobileContext() {
-        return ((AppiumDriver) driver).getContext().contains("NATIVE");
-    }
-
     void validateInsideOfContainer(WebElement containerElement, String readableContainerName) {
         Rectangle2D.Double elementRectangle = rectangle(containerElement);
         if (rootElements == null || rootElements.isEmpty()) {
@@ -865,10 +1101,9 @@ public class ResponsiveUIValidator {
                 putJsonDetailsWithElement(String.format("Element '%s' is not inside of '%s'", rootElementReadableName, readableContainerName), containerElement);
             }
         } else {
-            for (WebElement el : rootElements) {
-                if (!elementRectangle.contains(rectangle(el))) {
-                    putJsonDetailsWithElement(String.format("Element is not inside of '%s'", readableContainerName), containerElement);
-                }
+            int[] failed = failingIndexes(rootElements, rootElements.size(), k -> elementRectangle.contains(rectangle(rootElements.get(k))));
+            for (int i = 0; i < failed.length; i++) {
+                putJsonDetailsWithElement(String.format("Element is not inside of '%s'", readableContainerName), containerElement);
             }
         }
     }
@@ -916,6 +1151,14 @@ public class ResponsiveUIValidator {
         return rectangle(rootElement).intersects(rectangle(elementOverlapWith));
     }
 
+    private boolean elementIsBelow(WebElement element, WebElement elementAbove) {
+        return getY(element) >= getCornerY(elementAbove);
+    }
+
+    private boolean elementIsRightOf(WebElement element, WebElement elementLeft) {
+        return getX(element) >= getCornerX(elementLeft);
+    }
+
     private boolean elementsHaveEqualLeftOffset(WebElement element, WebElement elementToCompare) {
         return getX(element) == getX(elementToCompare);
     }
@@ -940,20 +1183,38 @@ public class ResponsiveUIValidator {
         return getY(element) == getBottomOffset(element);
     }
 
+    /**
+     * Fetch geometry of all specified elements with one request to the browser. Subsequent geometry reads are served from the snapshot
+     *
+     * @param elements
+     */
+    void captureGeometry(Collection<WebElement> elements) {
+        geometry = geometry.extend(driver, elements);
+    }
+
+    private Rectangle rect(WebElement element) {
+        Rectangle rect = geometry.get(element);
+        if (rect == null) {
+            captureGeometry(Collections.singletonList(element));
+            rect = geometry.get(element);
+        }
+        return rect;
+    }
+
     private int getX(WebElement element) {
-        return element.getLocation().getX();
+        return rect(element).getX();
     }
 
     private int getY(WebElement element) {
-        return element.getLocation().getY();
+        return rect(element).getY();
     }
 
     private int getWidth(WebElement element) {
-        return element.getSize().getWidth();
+        return rect(element).getWidth();
     }
 
     private int getHeight(WebElement element) {
-        return element.getSize().getHeight();
+        return rect(element).getHeight();
     }
 
     private int getCornerX(WebElement element) {
@@ -0,0 +1,39 @@
+package util.validator;
+
+import org.json.simple.JSONObject;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Storage of validation results between validate() and report generation
+ */
+public interface ResultSink {
+
+    /**
+     * Store result of one validation
+     *
+     * @param name   readable base name of the result
+     * @param result
+     * @return reference of the stored result, null if result could not be stored
+     */
+    String write(String name, JSONObject result);
+
+    /**
+     * Make all written results available for reading
+     */
+    void flush();
+
+    /**
+     * Read results by references in order of references and discard them from the storage
+     *
+     * @param references
+     * @param consumer
+     * @throws IOException if consumer fails
+     */
+    void read(List<String> references, ResultConsumer consumer) throws IOException;
+
+    interface ResultConsumer {
+        void accept(JSONObject result) throws IOException;
+    }
+}
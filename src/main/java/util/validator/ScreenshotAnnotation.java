@@ -0,0 +1,294 @@
+package util.validator;
+
+import org.apache.log4j.Logger;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import static util.validator.Constants.*;
+
+/**
+ * Decodes captured PNG bytes once, highlights root and failed elements in memory and encodes the result directly to the report folder.
+ * Optionally stores evidence images instead: region around root and failed elements and downscaled thumbnail of the whole screenshot.
+ * Holds only values copied from the validator, so it can run on a worker thread while the validator is reused
+ */
+final class ScreenshotAnnotation implements Runnable {
+
+    private final static Logger LOG = Logger.getLogger(ScreenshotAnnotation.class);
+
+    static final int DEFAULT_THUMBNAIL_WIDTH = 320;
+
+    private final byte[] screenshot;
+    private final File target;
+    private final String zoom;
+    private final int topBarOffset;
+    private final int[] root;
+    private final List<int[]> highlighted = new ArrayList<>();
+    private final Color rootColor;
+    private final Color highlightedElementsColor;
+    private final Color linesColor;
+    private boolean drawLeftOffsetLine;
+    private boolean drawRightOffsetLine;
+    private boolean drawTopOffsetLine;
+    private boolean drawBottomOffsetLine;
+    private float compressionQuality = -1;
+    private File crop;
+    private File thumbnail;
+    private int cropMargin;
+    private int thumbnailWidth;
+    private boolean keepTarget = true;
+
+    /**
+     * @param screenshot   PNG bytes of the screenshot taken by the driver
+     * @param target       file of annotated screenshot
+     * @param zoom         zoom of the page at the moment of validation
+     * @param topBarOffset offset of the page content from the top of the screenshot (mobile top bar)
+     * @param root         x, y, width, height of root element
+     */
+    ScreenshotAnnotation(byte[] screenshot, File target, String zoom, int topBarOffset, int[] root, Color rootColor, Color highlightedElementsColor, Color linesColor) {
+        this.screenshot = screenshot;
+        this.target = target;
+        this.zoom = zoom;
+        this.topBarOffset = topBarOffset;
+        this.root = root;
+        this.rootColor = rootColor;
+        this.highlightedElementsColor = highlightedElementsColor;
+        this.linesColor = linesColor;
+    }
+
+    ScreenshotAnnotation withOffsetLines(boolean left, boolean right, boolean top, boolean bottom) {
+        drawLeftOffsetLine = left;
+        drawRightOffsetLine = right;
+        drawTopOffsetLine = top;
+        drawBottomOffsetLine = bottom;
+        return this;
+    }
+
+    /**
+     * @param compressionQuality PNG compression quality from 0 (smallest file) to 1 (fastest encoding), negative value keeps default of the encoder
+     */
+    ScreenshotAnnotation withCompressionQuality(float compressionQuality) {
+        this.compressionQuality = compressionQuality;
+        return this;
+    }
+
+    /**
+     * Store cropped region around root and failed elements and thumbnail of the whole screenshot
+     *
+     * @param crop           file of cropped region
+     * @param thumbnail      file of thumbnail
+     * @param cropMargin     margin around elements in pixels of the page
+     * @param thumbnailWidth width of thumbnail in pixels
+     * @param keepTarget     whether the full image is stored as well
+     */
+    ScreenshotAnnotation withEvidence(File crop, File thumbnail, int cropMargin, int thumbnailWidth, boolean keepTarget) {
+        this.crop = crop;
+        this.thumbnail = thumbnail;
+        this.cropMargin = cropMargin;
+        this.thumbnailWidth = thumbnailWidth;
+        this.keepTarget = keepTarget;
+        return this;
+    }
+
+    ScreenshotAnnotation highlight(int x, int y, int width, int height) {
+        highlighted.add(new int[]{x, y, width, height});
+        return this;
+    }
+
+    /**
+     * Rectangles of root and highlighted elements and offset lines of root in pixels of the screenshot.
+     * Used by the report to draw annotations over shared screenshot instead of storing annotated copy
+     *
+     * @return JSONArray
+     */
+    JSONArray overlay() {
+        JSONArray overlay = new JSONArray();
+        overlay.add(overlayItem(root, rootColor));
+        for (int[] rect : highlighted) {
+            overlay.add(overlayItem(rect, highlightedElementsColor));
+        }
+        if (drawLeftOffsetLine) {
+            overlay.add(overlayLine(LINE_VERTICAL, retinaValue(root[0])));
+        }
+        if (drawRightOffsetLine) {
+            overlay.add(overlayLine(LINE_VERTICAL, retinaValue(root[0] + root[2])));
+        }
+        if (drawTopOffsetLine) {
+            overlay.add(overlayLine(LINE_HORIZONTAL, retinaValue(root[1] + topBarOffset)));
+        }
+        if (drawBottomOffsetLine) {
+            overlay.add(overlayLine(LINE_HORIZONTAL, retinaValue(root[1] + root[3] + topBarOffset)));
+        }
+        return overlay;
+    }
+
+    private JSONObject overlayItem(int[] rect, Color color) {
+        JSONObject item = new JSONObject();
+        item.put(X, retinaValue(rect[0]));
+        item.put(Y, retinaValue(rect[1] + topBarOffset));
+        item.put(WIDTH, retinaValue(rect[2]));
+        item.put(HEIGHT, retinaValue(rect[3]));
+        item.put(COLOR, cssColor(color));
+        return item;
+    }
+
+    /**
+     * Offset line across the whole screenshot: vertical line at x or horizontal line at y, in pixels of the screenshot
+     */
+    private JSONObject overlayLine(String direction, int position) {
+        JSONObject item = new JSONObject();
+        item.put(LINE, direction);
+        item.put(X, LINE_VERTICAL.equals(direction) ? position : 0);
+        item.put(Y, LINE_HORIZONTAL.equals(direction) ? position : 0);
+        item.put(WIDTH, 0);
+        item.put(HEIGHT, 0);
+        item.put(COLOR, cssColor(linesColor));
+        return item;
+    }
+
+    private static String cssColor(Color color) {
+        return String.format(Locale.ROOT, "rgba(%d,%d,%d,%.2f)", color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha() / 255f);
+    }
+
+    @Override
+    public void run() {
+        BufferedImage img;
+        try {
+            img = ImageIO.read(new ByteArrayInputStream(screenshot));
+        } catch (IOException e) {
+            LOG.error("Failed to create screenshot file: " + e.getMessage());
+            return;
+        }
+        if (img == null) {
+            LOG.error("Taking of screenshot was failed for some reason.");
+            return;
+        }
+
+        Graphics2D g = img.createGraphics();
+        drawRoot(g, img);
+
+        g.setColor(highlightedElementsColor);
+        g.setStroke(new BasicStroke(2));
+        for (int[] rect : highlighted) {
+            g.drawRect(retinaValue(rect[0]), retinaValue(rect[1] + topBarOffset), retinaValue(rect[2]), retinaValue(rect[3]));
+        }
+        g.dispose();
+
+        if (keepTarget) {
+            write(img, target);
+        }
+        if (crop != null) {
+            write(cropped(img), crop);
+            write(downscaled(img, Math.max(thumbnailWidth, 1)), thumbnail);
+        }
+    }
+
+    /**
+     * Region of the image that contains root and highlighted elements, extended by margin and clipped to the image
+     */
+    private BufferedImage cropped(BufferedImage img) {
+        Rectangle region = new Rectangle(retinaValue(root[0]), retinaValue(root[1] + topBarOffset), retinaValue(root[2]), retinaValue(root[3]));
+        for (int[] rect : highlighted) {
+            region.add(new Rectangle(retinaValue(rect[0]), retinaValue(rect[1] + topBarOffset), retinaValue(rect[2]), retinaValue(rect[3])));
+        }
+        int margin = retinaValue(cropMargin);
+        region.grow(margin, margin);
+        region = region.intersection(new Rectangle(0, 0, img.getWidth(), img.getHeight()));
+        if (region.isEmpty()) {
+            return img;
+        }
+        return img.getSubimage(region.x, region.y, region.width, region.height);
+    }
+
+    private static BufferedImage downscaled(BufferedImage img, int width) {
+        if (img.getWidth() <= width) {
+            return img;
+        }
+        int height = Math.max(1, (int) ((long) img.getHeight() * width / img.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(img, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    private void write(BufferedImage img, File file) {
+        try {
+            encode(img, file);
+        } catch (IOException e) {
+            LOG.error("Cannot write screenshot " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private void encode(BufferedImage img, File target) throws IOException {
+        File folder = target.getParentFile();
+        if (folder != null && !folder.isDirectory() && !folder.mkdirs() && !folder.isDirectory()) {
+            throw new IOException("Cannot create folder " + folder);
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+        if (!writers.hasNext()) {
+            throw new IOException("PNG encoder is not available");
+        }
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (compressionQuality >= 0 && param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(Math.min(compressionQuality, 1f));
+        }
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target)) {
+            if (output == null) {
+                throw new IOException("Cannot open " + target);
+            }
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private void drawRoot(Graphics2D g, BufferedImage img) {
+        int x = root[0];
+        int y = root[1];
+        int width = root[2];
+        int height = root[3];
+
+        g.setColor(rootColor);
+        g.setStroke(new BasicStroke(2));
+        g.drawRect(retinaValue(x), retinaValue(y + topBarOffset), retinaValue(width), retinaValue(height));
+
+        Stroke dashed = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{9}, 0);
+        g.setStroke(dashed);
+        g.setColor(linesColor);
+        if (drawLeftOffsetLine) {
+            g.drawLine(retinaValue(x), 0, retinaValue(x), retinaValue(img.getHeight()));
+        }
+        if (drawRightOffsetLine) {
+            g.drawLine(retinaValue(x + width), 0, retinaValue(x + width), retinaValue(img.getHeight()));
+        }
+        if (drawTopOffsetLine) {
+            g.drawLine(0, retinaValue(y + topBarOffset), retinaValue(img.getWidth()), retinaValue(y));
+        }
+        if (drawBottomOffsetLine) {
+            g.drawLine(0, retinaValue(y + height + topBarOffset), retinaValue(img.getWidth()), retinaValue(y + height));
+        }
+    }
+
+    private int retinaValue(int value) {
+        return ResponsiveUIValidator.retinaValue(value, zoom);
+    }
+}
@@ -0,0 +1,91 @@
+package util.validator;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded background pool that decodes, annotates and writes screenshots of failed validations.
+ * When all workers are busy and the queue is full, the submitting thread processes the screenshot itself,
+ * so the amount of screenshots held in memory stays limited. Screenshots are registered in the report collector of the validation,
+ * so its report waits only for them. Call {@link #awaitCompletion(long, TimeUnit)} before reading screenshots without a report,
+ * e.g. at the end of the suite
+ */
+public final class ScreenshotPipeline {
+
+    private final static Logger LOG = Logger.getLogger(ScreenshotPipeline.class);
+
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int QUEUE_CAPACITY = 16;
+
+    private static final Object LOCK = new Object();
+    private static int pending;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private ScreenshotPipeline() {
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "automotion-screenshot-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKERS, WORKERS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @param task      writes the screenshot
+     * @param collector collector which report waits for the screenshot
+     */
+    static void submit(Runnable task, ReportCollector collector) {
+        collector.begin();
+        synchronized (LOCK) {
+            pending++;
+        }
+        EXECUTOR.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.error("Failed to process screenshot: " + e.getMessage());
+            } finally {
+                synchronized (LOCK) {
+                    pending--;
+                    LOCK.notifyAll();
+                }
+                collector.done();
+            }
+        });
+    }
+
+    /**
+     * Wait until all submitted screenshots of all collectors are written
+     *
+     * @param timeout
+     * @param unit
+     * @return true if all screenshots are written, false if timeout elapsed before
+     * @throws InterruptedException
+     */
+    public static boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (LOCK) {
+            while (pending > 0) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(LOCK, left);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package util.validator;
+
+import com.google.common.hash.Hashing;
+import org.apache.log4j.Logger;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static util.validator.Constants.TARGET_AUTOMOTION_IMG;
+
+/**
+ * Content addressed storage of raw screenshots. Screenshot is stored under the hash of its bytes, so validations of the same
+ * unchanged page share one base image. Annotations of every validation are kept as overlay in its JSON result
+ */
+final class ScreenshotStore {
+
+    private final static Logger LOG = Logger.getLogger(ScreenshotStore.class);
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final Map<String, CompletableFuture<Void>> STORED = new ConcurrentHashMap<>();
+
+    private ScreenshotStore() {
+    }
+
+    /**
+     * Store PNG bytes if the same image has not been stored yet. Writing is done by ScreenshotPipeline.
+     * Report of the collector waits for the image, also when it is being written for another validation
+     *
+     * @param png
+     * @param collector
+     * @return name of image file in the report folder
+     */
+    static String store(byte[] png, ReportCollector collector) {
+        String name = Hashing.sha256().hashBytes(png).toString() + ".png";
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        CompletableFuture<Void> stored = STORED.putIfAbsent(name, written);
+        if (stored == null) {
+            File file = new File(TARGET_AUTOMOTION_IMG + name);
+            if (file.exists()) {
+                written.complete(null);
+            } else {
+                ScreenshotPipeline.submit(() -> {
+                    try {
+                        write(png, file);
+                    } finally {
+                        written.complete(null);
+                    }
+                }, collector);
+            }
+        } else if (!stored.isDone()) {
+            collector.begin();
+            stored.whenComplete((result, error) -> collector.done());
+        }
+        return name;
+    }
+
+    /**
+     * Width and height of the image, read from the PNG header without decoding the image
+     *
+     * @param png
+     * @return int[] {width, height}
+     */
+    static int[] imageSize(byte[] png) {
+        if (png.length >= 24 && startsWithSignature(png)) {
+            return new int[]{readInt(png, 16), readInt(png, 20)};
+        }
+        try {
+            BufferedImage img = ImageIO.read(new ByteArrayInputStream(png));
+            if (img != null) {
+                return new int[]{img.getWidth(), img.getHeight()};
+            }
+        } catch (IOException e) {
+            LOG.error("Cannot read screenshot size: " + e.getMessage());
+        }
+        return new int[]{0, 0};
+    }
+
+    private static boolean startsWithSignature(byte[] png) {
+        for (int i = 0; i < PNG_SIGNATURE.length; i++) {
+            if (png[i] != PNG_SIGNATURE[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static void write(byte[] png, File file) {
+        try {
+            File folder = file.getParentFile();
+            if (folder != null && !folder.isDirectory() && !folder.mkdirs() && !folder.isDirectory()) {
+                throw new IOException("Cannot create folder " + folder);
+            }
+            File temp = new File(file.getPath() + ".tmp");
+            Files.write(temp.toPath(), png);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            STORED.remove(file.getName());
+            LOG.error("Cannot write screenshot " + file.getName() + ": " + e.getMessage());
+        }
+    }
+}
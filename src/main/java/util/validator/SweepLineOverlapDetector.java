@@ -0,0 +1,162 @@
+package util.validator;
+
+import org.openqa.selenium.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Sweeps a vertical line from left to right over the rectangles sorted by their left edge.
+ * Vertical intervals of rectangles crossed by the line are kept in a segment tree over the y coordinates, which finds
+ * intervals containing the top of the current rectangle, and in a set ordered by top, which finds intervals starting inside it.
+ * Every query costs O(log n + k), so the whole detection is O(n log n + k) for n rectangles and k overlapping pairs,
+ * also when all rectangles are stacked in one column.
+ */
+public class SweepLineOverlapDetector implements OverlapDetector {
+
+    @Override
+    public List<int[]> findOverlappingPairs(List<Rectangle> rectangles) {
+        int size = rectangles.size();
+        int[] x = new int[size];
+        int[] y = new int[size];
+        int[] cornerX = new int[size];
+        int[] cornerY = new int[size];
+        long[] order = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            Rectangle rectangle = rectangles.get(i);
+            x[i] = rectangle.getX();
+            y[i] = rectangle.getY();
+            cornerX[i] = x[i] + rectangle.getWidth();
+            cornerY[i] = y[i] + rectangle.getHeight();
+            if (rectangle.getWidth() > 0 && rectangle.getHeight() > 0) {
+                order[count++] = ((long) x[i] << 32) | i;
+            }
+        }
+        Arrays.sort(order, 0, count);
+
+        List<int[]> pairs = new ArrayList<>();
+        if (count == 0) {
+            return pairs;
+        }
+        int[] coordinates = coordinates(order, count, y, cornerY);
+        IntervalTree tree = new IntervalTree(coordinates.length - 1);
+        TreeSet<Long> byTop = new TreeSet<>();
+        for (int k = 0; k < count; k++) {
+            int current = (int) order[k];
+            int top = Arrays.binarySearch(coordinates, y[current]);
+            int bottom = Arrays.binarySearch(coordinates, cornerY[current]);
+
+            tree.stab(top, x[current], cornerX, current, pairs);
+            Iterator<Long> starting = byTop.subSet(((long) top << 32) | Integer.MAX_VALUE, false, (long) bottom << 32, false).iterator();
+            while (starting.hasNext()) {
+                int other = (int) (long) starting.next();
+                if (cornerX[other] <= x[current]) {
+                    starting.remove();
+                } else {
+                    pairs.add(pair(other, current));
+                }
+            }
+
+            tree.insert(top, bottom - 1, current);
+            byTop.add(((long) top << 32) | current);
+        }
+        return pairs;
+    }
+
+    private static int[] coordinates(long[] order, int count, int[] y, int[] cornerY) {
+        int[] coordinates = new int[count * 2];
+        for (int k = 0; k < count; k++) {
+            int i = (int) order[k];
+            coordinates[2 * k] = y[i];
+            coordinates[2 * k + 1] = cornerY[i];
+        }
+        Arrays.sort(coordinates);
+        int distinct = 0;
+        for (int i = 0; i < coordinates.length; i++) {
+            if (i == 0 || coordinates[i] != coordinates[distinct - 1]) {
+                coordinates[distinct++] = coordinates[i];
+            }
+        }
+        return Arrays.copyOf(coordinates, distinct);
+    }
+
+    private static int[] pair(int first, int second) {
+        return first < second ? new int[]{first, second} : new int[]{second, first};
+    }
+
+    /**
+     * Segment tree over elementary y slots. Every interval is stored in the O(log n) nodes covering it, a stabbing query
+     * visits the nodes on one root to leaf path. Rectangles left behind by the sweep line are dropped from a node
+     * when the node is visited, so every stored entry is skipped at most once
+     */
+    private static final class IntervalTree {
+        private final int slots;
+        private final int[][] nodes;
+        private final int[] sizes;
+
+        IntervalTree(int slots) {
+            this.slots = slots;
+            this.nodes = new int[4 * slots][];
+            this.sizes = new int[4 * slots];
+        }
+
+        void insert(int from, int to, int rectangle) {
+            insert(1, 0, slots - 1, from, to, rectangle);
+        }
+
+        private void insert(int node, int low, int high, int from, int to, int rectangle) {
+            if (from <= low && high <= to) {
+                if (nodes[node] == null) {
+                    nodes[node] = new int[4];
+                } else if (sizes[node] == nodes[node].length) {
+                    nodes[node] = Arrays.copyOf(nodes[node], sizes[node] * 2);
+                }
+                nodes[node][sizes[node]++] = rectangle;
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            if (from <= middle) {
+                insert(2 * node, low, middle, from, to, rectangle);
+            }
+            if (to > middle) {
+                insert(2 * node + 1, middle + 1, high, from, to, rectangle);
+            }
+        }
+
+        /**
+         * Add pairs of current rectangle with every active rectangle whose interval contains the slot
+         */
+        void stab(int slot, int sweepX, int[] cornerX, int current, List<int[]> pairs) {
+            int node = 1;
+            int low = 0;
+            int high = slots - 1;
+            while (true) {
+                int[] entries = nodes[node];
+                int kept = 0;
+                for (int i = 0; i < sizes[node]; i++) {
+                    int other = entries[i];
+                    if (cornerX[other] > sweepX) {
+                        entries[kept++] = other;
+                        pairs.add(pair(other, current));
+                    }
+                }
+                sizes[node] = kept;
+                if (low == high) {
+                    return;
+                }
+                int middle = (low + high) >>> 1;
+                if (slot <= middle) {
+                    node = 2 * node;
+                    high = middle;
+                } else {
+                    node = 2 * node + 1;
+                    low = middle + 1;
+                }
+            }
+        }
+    }
+}
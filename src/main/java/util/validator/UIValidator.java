@@ -1,21 +1,16 @@
 package util.validator;
 
-import http.helpers.TextFinder;
-import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import util.general.SystemHelper;
 import util.validator.properties.Padding;
 
 import java.util.List;
 
 public class UIValidator extends ResponsiveUIValidator implements Validator {
 
-    UIValidator(WebDriver driver, WebElement element, String readableNameOfElement) {
-        super(driver);
+    UIValidator(ResponsiveUIValidator parent, WebElement element, String readableNameOfElement) {
+        super(parent);
         rootElement = element;
         rootElementReadableName = readableNameOfElement;
-        pageWidth = (int) getPageWidth();
-        pageHeight = (int) getPageHeight();
         startTime = System.currentTimeMillis();
     }
 
@@ -27,7 +22,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator changeMetricsUnitsTo(Units units) {
-        this.units = units;
+        uncachedRule(() -> this.units = units);
         return this;
     }
 
@@ -39,7 +34,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withLeftElement(WebElement element) {
-        validateLeftElement(element);
+        rule(() -> validateLeftElement(element), element);
         return this;
     }
 
@@ -53,7 +48,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withLeftElement(WebElement element, int minMargin, int maxMargin) {
-        validateLeftElement(element, getConvertedInt(minMargin, true), getConvertedInt(maxMargin, true));
+        rule(() -> validateLeftElement(element, getConvertedInt(minMargin, true), getConvertedInt(maxMargin, true)), element);
         return this;
     }
 
@@ -65,7 +60,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withRightElement(WebElement element) {
-        validateRightElement(element);
+        rule(() -> validateRightElement(element), element);
         return this;
     }
 
@@ -79,7 +74,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withRightElement(WebElement element, int minMargin, int maxMargin) {
-        validateRightElement(element, getConvertedInt(minMargin, true), getConvertedInt(maxMargin, true));
+        rule(() -> validateRightElement(element, getConvertedInt(minMargin, true), getConvertedInt(maxMargin, true)), element);
         return this;
     }
 
@@ -91,7 +86,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withTopElement(WebElement element) {
-        validateAboveElement(element);
+        rule(() -> validateAboveElement(element), element);
         return this;
     }
 
@@ -105,7 +100,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withTopElement(WebElement element, int minMargin, int maxMargin) {
-        validateAboveElement(element, getConvertedInt(minMargin, false), getConvertedInt(maxMargin, false));
+        rule(() -> validateAboveElement(element, getConvertedInt(minMargin, false), getConvertedInt(maxMargin, false)), element);
         return this;
     }
 
@@ -117,7 +112,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withBottomElement(WebElement element) {
-        validateBelowElement(element);
+        rule(() -> validateBelowElement(element), element);
         return this;
     }
 
@@ -131,7 +126,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withBottomElement(WebElement element, int minMargin, int maxMargin) {
-        validateBelowElement(element, getConvertedInt(minMargin, false), getConvertedInt(maxMargin, false));
+        rule(() -> validateBelowElement(element, getConvertedInt(minMargin, false), getConvertedInt(maxMargin, false)), element);
         return this;
     }
 
@@ -144,7 +139,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator notOverlapWith(WebElement element, String readableName) {
-        validateNotOverlappingWithElements(element, readableName);
+        rule(() -> validateNotOverlappingWithElements(element, readableName), element);
         return this;
     }
 
@@ -157,7 +152,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator overlapWith(WebElement element, String readableName) {
-        validateOverlappingWithElements(element, readableName);
+        rule(() -> validateOverlappingWithElements(element, readableName), element);
         return this;
     }
 
@@ -169,9 +164,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator notOverlapWith(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateNotOverlappingWithElements(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateNotOverlappingWithElements(element, null);
+            }
+        }, elements);
         return this;
     }
 
@@ -184,7 +181,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameOffsetLeftAs(WebElement element, String readableName) {
-        validateLeftOffsetForElements(element, readableName);
+        rule(() -> validateLeftOffsetForElements(element, readableName), element);
         drawLeftOffsetLine = true;
         return this;
     }
@@ -197,9 +194,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameOffsetLeftAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateLeftOffsetForElements(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateLeftOffsetForElements(element, null);
+            }
+        }, elements);
         drawLeftOffsetLine = true;
         return this;
     }
@@ -213,7 +212,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameOffsetRightAs(WebElement element, String readableName) {
-        validateRightOffsetForElements(element, readableName);
+        rule(() -> validateRightOffsetForElements(element, readableName), element);
         drawRightOffsetLine = true;
         return this;
     }
@@ -226,9 +225,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameOffsetRightAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateRightOffsetForElements(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateRightOffsetForElements(element, null);
+            }
+        }, elements);
         drawRightOffsetLine = true;
         return this;
     }
@@ -242,7 +243,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameOffsetTopAs(WebElement element, String readableName) {
-        validateTopOffsetForElements(element, readableName);
+        rule(() -> validateTopOffsetForElements(element, readableName), element);
         drawTopOffsetLine = true;
         return this;
     }
@@ -255,9 +256,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameOffsetTopAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateTopOffsetForElements(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateTopOffsetForElements(element, null);
+            }
+        }, elements);
         drawTopOffsetLine = true;
         return this;
     }
@@ -271,7 +274,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameOffsetBottomAs(WebElement element, String readableName) {
-        validateBottomOffsetForElements(element, readableName);
+        rule(() -> validateBottomOffsetForElements(element, readableName), element);
         drawBottomOffsetLine = true;
         return this;
     }
@@ -284,9 +287,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameOffsetBottomAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateBottomOffsetForElements(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateBottomOffsetForElements(element, null);
+            }
+        }, elements);
         drawBottomOffsetLine = true;
         return this;
     }
@@ -300,7 +305,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameWidthAs(WebElement element, String readableName) {
-        validateSameWidth(element, readableName);
+        rule(() -> validateSameWidth(element, readableName), element);
         return this;
     }
 
@@ -312,9 +317,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameWidthAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateSameWidth(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateSameWidth(element, null);
+            }
+        }, elements);
         return this;
     }
 
@@ -326,7 +333,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator minWidth(int width) {
-        validateMinWidth(getConvertedInt(width, true));
+        rule(() -> validateMinWidth(getConvertedInt(width, true)));
         return this;
     }
 
@@ -338,7 +345,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator maxWidth(int width) {
-        validateMaxWidth(getConvertedInt(width, true));
+        rule(() -> validateMaxWidth(getConvertedInt(width, true)));
         return this;
     }
 
@@ -351,8 +358,10 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator widthBetween(int min, int max) {
-        validateMinWidth(getConvertedInt(min, true));
-        validateMaxWidth(getConvertedInt(max, true));
+        rule(() -> {
+            validateMinWidth(getConvertedInt(min, true));
+            validateMaxWidth(getConvertedInt(max, true));
+        });
         return this;
     }
 
@@ -365,7 +374,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameHeightAs(WebElement element, String readableName) {
-        validateSameHeight(element, readableName);
+        rule(() -> validateSameHeight(element, readableName), element);
         return this;
     }
 
@@ -377,9 +386,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameHeightAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateSameHeight(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateSameHeight(element, null);
+            }
+        }, elements);
         return this;
     }
 
@@ -391,7 +402,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator minHeight(int height) {
-        validateMinHeight(getConvertedInt(height, false));
+        rule(() -> validateMinHeight(getConvertedInt(height, false)));
         return this;
     }
 
@@ -403,7 +414,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator maxHeight(int height) {
-        validateMaxHeight(getConvertedInt(height, false));
+        rule(() -> validateMaxHeight(getConvertedInt(height, false)));
         return this;
     }
 
@@ -416,7 +427,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameSizeAs(WebElement element, String readableName) {
-        validateSameSize(element, readableName);
+        rule(() -> validateSameSize(element, readableName), element);
         return this;
     }
 
@@ -428,9 +439,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator sameSizeAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateSameSize(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateSameSize(element, null);
+            }
+        }, elements);
         return this;
     }
 
@@ -443,7 +456,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator notSameSizeAs(WebElement element, String readableName) {
-        validateNotSameSize(element, readableName);
+        rule(() -> validateNotSameSize(element, readableName), element);
         return this;
     }
 
@@ -455,9 +468,11 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator notSameSizeAs(List<WebElement> elements) {
-        for (WebElement element : elements) {
-            validateNotSameSize(element, getFormattedMessage(element));
-        }
+        rule(() -> {
+            for (WebElement element : elements) {
+                validateNotSameSize(element, null);
+            }
+        }, elements);
         return this;
     }
 
@@ -470,8 +485,10 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator heightBetween(int min, int max) {
-        validateMinHeight(getConvertedInt(min, false));
-        validateMaxHeight(getConvertedInt(max, false));
+        rule(() -> {
+            validateMinHeight(getConvertedInt(min, false));
+            validateMaxHeight(getConvertedInt(max, false));
+        });
         return this;
     }
 
@@ -486,9 +503,15 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator minOffset(int top, int right, int bottom, int left) {
-        if (getConvertedInt(top, false) > MIN_OFFSET && getConvertedInt(right, true) > MIN_OFFSET && getConvertedInt(bottom, false) > MIN_OFFSET && getConvertedInt(left, true) > MIN_OFFSET) {
-            validateMinOffset(getConvertedInt(top, false), getConvertedInt(right, true), getConvertedInt(bottom, false), getConvertedInt(left, true));
-        }
+        rule(() -> {
+            int convertedTop = getConvertedInt(top, false);
+            int convertedRight = getConvertedInt(right, true);
+            int convertedBottom = getConvertedInt(bottom, false);
+            int convertedLeft = getConvertedInt(left, true);
+            if (convertedTop > MIN_OFFSET && convertedRight > MIN_OFFSET && convertedBottom > MIN_OFFSET && convertedLeft > MIN_OFFSET) {
+                validateMinOffset(convertedTop, convertedRight, convertedBottom, convertedLeft);
+            }
+        });
         return this;
     }
 
@@ -503,9 +526,15 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator maxOffset(int top, int right, int bottom, int left) {
-        if (getConvertedInt(top, false) > MIN_OFFSET && getConvertedInt(right, true) > MIN_OFFSET && getConvertedInt(bottom, false) > MIN_OFFSET && getConvertedInt(left, true) > MIN_OFFSET) {
-            validateMaxOffset(getConvertedInt(top, false), getConvertedInt(right, true), getConvertedInt(bottom, false), getConvertedInt(left, true));
-        }
+        rule(() -> {
+            int convertedTop = getConvertedInt(top, false);
+            int convertedRight = getConvertedInt(right, true);
+            int convertedBottom = getConvertedInt(bottom, false);
+            int convertedLeft = getConvertedInt(left, true);
+            if (convertedTop > MIN_OFFSET && convertedRight > MIN_OFFSET && convertedBottom > MIN_OFFSET && convertedLeft > MIN_OFFSET) {
+                validateMaxOffset(convertedTop, convertedRight, convertedBottom, convertedLeft);
+            }
+        });
         return this;
     }
 
@@ -518,18 +547,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withCssValue(String cssProperty, String... args) {
-        String cssValue = rootElement.getCssValue(cssProperty);
-
-        if (!cssValue.equals("")) {
-            for (String val : args) {
-                val = !val.startsWith("#") ? val : SystemHelper.hexStringToARGB(val);
-                if (!TextFinder.textIsFound(val, cssValue)) {
-                    putJsonDetailsWithoutElement(String.format("Expected value of '%s' is '%s'. Actual value is '%s'", cssProperty, val, cssValue));
-                }
-            }
-        } else {
-            putJsonDetailsWithoutElement(String.format("Element '%s' does not have css property '%s'", rootElementReadableName, cssProperty));
-        }
+        uncachedRule(() -> validateCssValue(cssProperty, args));
         return this;
     }
 
@@ -542,18 +560,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator withoutCssValue(String cssProperty, String... args) {
-        String cssValue = rootElement.getCssValue(cssProperty);
-
-        if (!cssValue.equals("")) {
-            for (String val : args) {
-                val = !val.startsWith("#") ? val : SystemHelper.hexStringToARGB(val);
-                if (TextFinder.textIsFound(val, cssValue)) {
-                    putJsonDetailsWithoutElement(String.format("CSS property '%s' should not contain value '%s'. Actual value is '%s'", cssProperty, val, cssValue));
-                }
-            }
-        } else {
-            putJsonDetailsWithoutElement(String.format("Element '%s' does not have css property '%s'", rootElementReadableName, cssProperty));
-        }
+        uncachedRule(() -> validateWithoutCssValue(cssProperty, args));
         return this;
     }
 
@@ -564,7 +571,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator equalLeftRightOffset() {
-        validateEqualLeftRightOffset(rootElement, rootElementReadableName);
+        rule(() -> validateEqualLeftRightOffset(rootElement, rootElementReadableName));
         return this;
     }
 
@@ -575,7 +582,7 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator equalTopBottomOffset() {
-        validateEqualTopBottomOffset(rootElement, rootElementReadableName);
+        rule(() -> validateEqualTopBottomOffset(rootElement, rootElementReadableName));
         return this;
     }
 
@@ -588,13 +595,13 @@ public class UIValidator extends ResponsiveUIValidator implements Validator {
      */
     @Override
     public UIValidator insideOf(WebElement containerElement, String readableContainerName) {
-        validateInsideOfContainer(containerElement, readableContainerName);
+        rule(() -> validateInsideOfContainer(containerElement, readableContainerName), containerElement);
         return this;
     }
 
     @Override
     public UIValidator insideOf(WebElement containerElement, String readableContainerName, Padding padding) {
-        validateInsideOfContainer(containerElement, readableContainerName, padding);
+        rule(() -> validateInsideOfContainer(containerElement, readableContainerName, padding), containerElement);
         return this;
     }
 }
\ No newline at end of file
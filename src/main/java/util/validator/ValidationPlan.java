@@ -0,0 +1,80 @@
+package util.validator;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.*;
+
+/**
+ * Rules recorded by fluent validator calls. Rules are evaluated only in validate() after geometry of all
+ * elements used by the plan has been fetched in one batch. Each rule keeps the failures of its last evaluation,
+ * so repeated validation can carry them forward while geometry of the rule stays the same
+ */
+final class ValidationPlan {
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Set<WebElement> elements = new LinkedHashSet<>();
+
+    void add(Runnable check, Collection<WebElement> ruleElements) {
+        rules.add(new Rule(check, ruleElements, true));
+        elements.addAll(ruleElements);
+    }
+
+    /**
+     * Add rule that does not depend on geometry (CSS values, change of units). Such rules are evaluated on every validation
+     *
+     * @param check
+     */
+    void addUncached(Runnable check) {
+        rules.add(new Rule(check, Collections.emptyList(), false));
+    }
+
+    /**
+     * Union of elements used by all recorded rules (root elements of validator are not included)
+     *
+     * @return Set<WebElement>
+     */
+    Set<WebElement> elements() {
+        return elements;
+    }
+
+    List<Rule> rules() {
+        return rules;
+    }
+
+    static final class Rule {
+        final Runnable check;
+        final List<WebElement> elements;
+        final boolean cacheable;
+        List<Failure> failures;
+
+        Rule(Runnable check, Collection<WebElement> elements, boolean cacheable) {
+            this.check = check;
+            this.elements = new ArrayList<>(elements);
+            this.cacheable = cacheable;
+        }
+
+        /**
+         * Rule needs to be evaluated again if it was never evaluated or any element it depends on has changed
+         *
+         * @param changed elements which geometry differs from previous validation
+         * @param roots   root element(s) of validator, used by every rule
+         * @return boolean
+         */
+        boolean isAffectedBy(Set<WebElement> changed, Collection<WebElement> roots) {
+            if (!cacheable || failures == null) {
+                return true;
+            }
+            for (WebElement element : roots) {
+                if (changed.contains(element)) {
+                    return true;
+                }
+            }
+            for (WebElement element : elements) {
+                if (changed.contains(element)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
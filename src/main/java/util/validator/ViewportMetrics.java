@@ -0,0 +1,185 @@
+package util.validator;
+
+import io.appium.java_client.AppiumDriver;
+import org.apache.log4j.Logger;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import static environment.EnvironmentFactory.*;
+
+/**
+ * Size of the visible page area and current zoom of the page.
+ * Metrics of mobile sessions are cached per driver together with the page URL and window size they were fetched for,
+ * and are fetched again after navigation or rotation, when the page is zoomed through helpers of this library,
+ * or {@link #invalidate(WebDriver)} is called. Desktop validations fetch metrics with every geometry snapshot
+ */
+public final class ViewportMetrics {
+
+    private final static Logger LOG = Logger.getLogger(ViewportMetrics.class);
+
+    static final String DEFAULT_ZOOM = "100%";
+
+    /**
+     * Script that returns [width, height, zoom]. The only argument defines whether zoom of body is taken into account
+     */
+    static final String VIEWPORT_SCRIPT = "var zoom = arguments[0] ? document.body.style.zoom : null;" +
+            "var zoomed = zoom && zoom !== '100%';" +
+            "var docElement = document.documentElement;" +
+            "var width = zoomed ? document.getElementsByTagName('body')[0].offsetWidth" +
+            " : self.innerWidth || (docElement && docElement.clientWidth) || document.body.clientWidth;" +
+            "var height = zoomed ? document.getElementsByTagName('body')[0].offsetHeight" +
+            " : self.innerHeight || (docElement && docElement.clientHeight) || document.body.clientHeight;" +
+            "return [width, height, zoomed ? zoom : '100%'];";
+
+    private static final Map<WebDriver, Cached> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final int width;
+    private final int height;
+    private final String zoom;
+
+    ViewportMetrics(int width, int height, String zoom) {
+        this.width = width;
+        this.height = height;
+        this.zoom = zoom;
+    }
+
+    /**
+     * Forget cached metrics of the driver. Needs to be called after page was zoomed by other means than DriverHelper without navigation or resize of the window
+     *
+     * @param driver
+     */
+    public static void invalidate(WebDriver driver) {
+        if (driver != null) {
+            CACHE.remove(driver);
+        }
+    }
+
+    static ViewportMetrics of(WebDriver driver) {
+        String url = currentUrl(driver);
+        Dimension windowSize = driver.manage().window().getSize();
+        Cached cached = CACHE.get(driver);
+        if (cached != null && cached.isFor(url, windowSize)) {
+            return cached.metrics;
+        }
+        ViewportMetrics metrics = fetch(driver, windowSize);
+        CACHE.put(driver, new Cached(url, windowSize, metrics));
+        return metrics;
+    }
+
+    /**
+     * Viewport can be fetched in the same script as element geometry (only desktop browsers, mobile uses window size in some contexts)
+     *
+     * @return boolean
+     */
+    static boolean isScriptable(WebDriver driver) {
+        return !isMobile() && driver instanceof JavascriptExecutor;
+    }
+
+    /**
+     * Argument for {@link #VIEWPORT_SCRIPT}
+     */
+    static boolean readsZoom() {
+        return !isMobile() && !isFirefox();
+    }
+
+    static ViewportMetrics fromScriptResult(Object result) {
+        if (!(result instanceof List) || ((List) result).size() != 3) {
+            return null;
+        }
+        List values = (List) result;
+        if (!(values.get(0) instanceof Number) || !(values.get(1) instanceof Number)) {
+            return null;
+        }
+        String zoom = values.get(2) instanceof String ? (String) values.get(2) : DEFAULT_ZOOM;
+        return new ViewportMetrics(((Number) values.get(0)).intValue(), ((Number) values.get(1)).intValue(), zoom);
+    }
+
+    private static ViewportMetrics fetch(WebDriver driver, Dimension windowSize) {
+        if (isMobile() && (isIOS() || isNativeMobileContext(driver))) {
+            return fromWindowSize(windowSize);
+        }
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                ViewportMetrics metrics = fromScriptResult(((JavascriptExecutor) driver).executeScript(VIEWPORT_SCRIPT, readsZoom()));
+                if (metrics != null) {
+                    return metrics;
+                }
+            } catch (WebDriverException e) {
+                LOG.debug("Viewport script is not supported, falling back to window size: " + e.getMessage());
+            }
+        }
+        return fromWindowSize(windowSize);
+    }
+
+    private static ViewportMetrics fromWindowSize(Dimension size) {
+        return new ViewportMetrics(size.getWidth(), size.getHeight(), DEFAULT_ZOOM);
+    }
+
+    /**
+     * URL of the page, null in native contexts which have no page
+     */
+    private static String currentUrl(WebDriver driver) {
+        try {
+            return driver.getCurrentUrl();
+        } catch (WebDriverException e) {
+            return null;
+        }
+    }
+
+    private static boolean isNativeMobileContext(WebDriver driver) {
+        return driver instanceof AppiumDriver && ((AppiumDriver) driver).getContext().contains("NATIVE");
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public String getZoom() {
+        return zoom;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ViewportMetrics)) {
+            return false;
+        }
+        ViewportMetrics that = (ViewportMetrics) o;
+        return width == that.width && height == that.height && Objects.equals(zoom, that.zoom);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(width, height, zoom);
+    }
+
+    private static final class Cached {
+        private final String url;
+        private final Dimension windowSize;
+        private final ViewportMetrics metrics;
+
+        Cached(String url, Dimension windowSize, ViewportMetrics metrics) {
+            this.url = url;
+            this.windowSize = windowSize;
+            this.metrics = metrics;
+        }
+
+        boolean isFor(String url, Dimension windowSize) {
+            return Objects.equals(this.url, url) && this.windowSize.equals(windowSize);
+        }
+    }
+}
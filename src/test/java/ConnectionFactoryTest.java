@@ -0,0 +1,323 @@
+import com.sun.net.httpserver.HttpServer;
+import http.connections.BatchExecutor;
+import http.connections.ConnectionFactory;
+import http.connections.RequestResult;
+import http.connections.RequestSpec;
+import http.connections.StreamingResponse;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class ConnectionFactoryTest {
+
+    private HttpServer server;
+    private String url;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/slow", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write("{}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/echo", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            byte[] body = (exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath()).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.createContext("/text", exchange -> {
+            String charset = exchange.getRequestURI().getQuery();
+            int repeat = exchange.getRequestURI().getPath().endsWith("large") ? 5000 : 1;
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < repeat; i++) {
+                text.append("first line\nsecond line caf\u00e9\n");
+            }
+            byte[] body = text.toString().getBytes(charset);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=" + charset);
+            exchange.getResponseHeaders().add("X-Export-Id", "42");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.createContext("/upload", exchange -> {
+            byte[] received = IOUtils.toByteArray(exchange.getRequestBody());
+            String form = new String(received, StandardCharsets.ISO_8859_1);
+            byte[] body = (received.length + " " + form.contains("\u0089PNG") + " " + form.contains("name=\"title\"")).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.createContext("/empty", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = ("{\"method\":\"" + exchange.getRequestMethod() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        ConnectionFactory.closeConnections();
+        server.stop(0);
+    }
+
+    @Test
+    public void connectionIsReusedAcrossRequestsAndFactories() throws IOException {
+        Map<Object, Object> body = new HashMap<>();
+        body.put("name", "user");
+        for (int i = 0; i < 10; i++) {
+            ConnectionFactory factory = new ConnectionFactory(url);
+            assertThat(factory.sendGet("/users", "token")).containsEntry(200, "{\"method\":\"GET\"}");
+            assertThat(factory.sendPost(body, "/users", "token", false)).containsEntry(200, "{\"method\":\"POST\"}");
+        }
+        assertThat(clientPorts).hasSize(1);
+    }
+
+    @Test
+    public void factoryCreatedBeforeClosingConnectionsKeepsWorking() throws IOException {
+        ConnectionFactory factory = new ConnectionFactory(url);
+        assertThat(factory.sendGet("/users", "token")).containsKey(200);
+
+        ConnectionFactory.closeConnections();
+
+        assertThat(factory.sendGet("/users", "token")).containsEntry(200, "{\"method\":\"GET\"}");
+    }
+
+    @Test
+    public void asyncRequestsOfAllFactoriesOfUrlAreSentConcurrentlyUpToTheLimit() {
+        ConnectionFactory.setAsyncConcurrency(url, 4);
+        List<CompletableFuture<Map<Integer, String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            responses.add(new ConnectionFactory(url).sendGetAsync("/slow", "token"));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).join();
+
+        for (CompletableFuture<Map<Integer, String>> response : responses) {
+            assertThat(response.join()).containsEntry(200, "{}");
+        }
+        assertThat(maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void conflictingAsyncLimitIsRejected() {
+        ConnectionFactory.setAsyncConcurrency(url, 2);
+        ConnectionFactory.setAsyncConcurrency(url, 2);
+        try {
+            ConnectionFactory.setAsyncConcurrency(url, 3);
+            fail("Second limit of the URL should be rejected");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage()).contains(url);
+        }
+    }
+
+    @Test
+    public void asyncRequestFailureCompletesFutureExceptionally() {
+        CompletableFuture<Map<Integer, String>> response = new ConnectionFactory("http://127.0.0.1:1").sendGetAsync("/users", "token");
+        assertThat(response).isNotNull();
+        try {
+            response.join();
+            fail("Request to closed port should fail");
+        } catch (CompletionException e) {
+            assertThat(e.getCause()).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    public void batchResultsAreInOrderOfRequestsAndInFlightIsLimitedPerHost() throws InterruptedException {
+        List<RequestSpec> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Map<Object, Object> body = new HashMap<>();
+            body.put("id", String.valueOf(i));
+            requests.add(i % 2 == 0 ? RequestSpec.post("/echo/" + i, body) : RequestSpec.get("/echo/" + i).withHeader("Authorization", "Bearer token"));
+        }
+
+        List<RequestResult> results = new BatchExecutor(8, 3, 0).execute(new ConnectionFactory(url), requests);
+
+        assertThat(results).hasSize(20);
+        for (int i = 0; i < 20; i++) {
+            RequestResult result = results.get(i);
+            assertThat(result.isSuccessful()).isTrue();
+            assertThat(result.getBody()).isEqualTo((i % 2 == 0 ? "POST" : "GET") + " /echo/" + i);
+            assertThat(result.getTimeExecution()).isGreaterThanOrEqualTo(0);
+        }
+        assertThat(maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    public void batchRespectsRequestsPerSecondPerHost() throws InterruptedException {
+        List<RequestSpec> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(RequestSpec.delete("/echo/" + i));
+        }
+        BatchExecutor executor = new BatchExecutor(10, 10, 20);
+        long start = System.nanoTime();
+        List<RequestResult> results = executor.execute(new ConnectionFactory(url), requests);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(350);
+        assertThat(results).extracting(RequestResult::getStatusCode).containsOnly(200);
+    }
+
+    @Test
+    public void busyHostDoesNotDelayBatchToOtherHost() throws Exception {
+        HttpServer other = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        other.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write("{}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        other.start();
+        try {
+            List<RequestSpec> slowRequests = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                slowRequests.add(RequestSpec.get("/slow"));
+            }
+            BatchExecutor executor = new BatchExecutor(2, 1, 0);
+            CompletableFuture<List<RequestResult>> slowBatch = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executor.execute(new ConnectionFactory(url), slowRequests);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(50);
+
+            long start = System.nanoTime();
+            List<RequestResult> fastResults = executor.execute(new ConnectionFactory("http://127.0.0.1:" + other.getAddress().getPort()),
+                    Collections.nCopies(3, RequestSpec.get("/fast")));
+
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+            assertThat(slowBatch.isDone()).isFalse();
+            assertThat(fastResults).extracting(RequestResult::getStatusCode).containsOnly(200);
+            assertThat(slowBatch.get()).extracting(RequestResult::getStatusCode).containsOnly(200);
+            assertThat(maxInFlight.get()).isEqualTo(1);
+        } finally {
+            other.stop(0);
+        }
+    }
+
+    @Test
+    public void failedBatchRequestIsReportedInItsResult() throws InterruptedException {
+        List<RequestResult> results = new BatchExecutor(2, 2, 0).execute(new ConnectionFactory("http://127.0.0.1:1"), Collections.singletonList(RequestSpec.get("/users")));
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isSuccessful()).isFalse();
+        assertThat(results.get(0).getStatusCode()).isEqualTo(-1);
+        assertThat(results.get(0).getError()).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void bodyKeepsLineSeparatorsAndIsDecodedWithCharsetOfResponse() throws IOException {
+        ConnectionFactory factory = new ConnectionFactory(url);
+        assertThat(factory.sendGet("/text?UTF-8", "token")).containsEntry(200, "first line\nsecond line caf\u00e9\n");
+        assertThat(factory.sendGet("/text?ISO-8859-1", "token")).containsEntry(200, "first line\nsecond line caf\u00e9\n");
+        assertThat(factory.sendGet("/empty", "token")).containsEntry(204, "");
+    }
+
+    @Test
+    public void largeBodyIsStreamedInBoundedChunks() throws IOException {
+        String line = "first line\nsecond line caf\u00e9\n";
+        int[] total = new int[1];
+        int[] largestChunk = new int[1];
+        try (StreamingResponse response = new ConnectionFactory(url).stream(RequestSpec.get("/text/large?UTF-8"))) {
+            assertThat(response.getStatusCode()).isEqualTo(200);
+            assertThat(response.getHeader("x-export-id")).isEqualTo("42");
+            assertThat(response.getHeaders().get("Content-Type")).containsExactly("text/plain; charset=UTF-8");
+            response.readBody((buffer, length) -> {
+                total[0] += length;
+                largestChunk[0] = Math.max(largestChunk[0], length);
+            });
+        }
+        assertThat(total[0]).isEqualTo(line.length() * 5000);
+        assertThat(largestChunk[0]).isLessThanOrEqualTo(8192);
+    }
+
+    @Test
+    public void existingFileIsUploadedAndKept() throws IOException {
+        File file = new File("target/upload-fixture.bin");
+        byte[] content = new byte[5 * 1024 * 1024];
+        new Random(1).nextBytes(content);
+        FileUtils.writeByteArrayToFile(file, content);
+        Map<Object, Object> form = new HashMap<>();
+        form.put("title", "fixture");
+
+        Map<Integer, String> response = new ConnectionFactory(url).sendPostWithFile(form, new HashMap<>(), "/upload", file);
+
+        assertThat(response).containsKey(200);
+        String[] received = response.get(200).split(" ");
+        assertThat(Long.parseLong(received[0])).isGreaterThan(content.length);
+        assertThat(received[2]).isEqualTo("true");
+        assertThat(file).exists();
+        FileUtils.deleteQuietly(file);
+    }
+
+    @Test
+    public void generatedMediaFileIsUploadedAndDeleted() throws IOException {
+        Map<Object, Object> form = new HashMap<>();
+        form.put("file", "upload-generated.png");
+        form.put("title", "generated");
+
+        Map<Integer, String> response = new ConnectionFactory(url).sendPost(form, "/upload", "token", true);
+
+        assertThat(response).containsKey(200);
+        assertThat(response.get(200)).endsWith(" true true");
+        assertThat(new File("target/upload-generated.png")).doesNotExist();
+    }
+}
@@ -0,0 +1,33 @@
+package rectangles;
+
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebElement;
+import util.validator.BreakpointResult;
+import util.validator.ResponsiveUIValidator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class BreakpointsTest {
+
+    @Test
+    public void validatesSpecOnEveryBreakpoint() {
+        DummyWebDriver driver = new DummyWebDriver(1280, 800);
+        WebElement container = createElement(0, 0, 1000, 300);
+
+        List<BreakpointResult> results = new ResponsiveUIValidator(driver).validateBreakpoints(
+                Arrays.asList(new Dimension(1024, 768), new Dimension(1440, 900), new Dimension(800, 600)),
+                validator -> validator.findElement(container, "Container")
+                        .changeMetricsUnitsTo(ResponsiveUIValidator.Units.PERCENT)
+                        .maxWidth(100));
+
+        assertThat(results).extracting(BreakpointResult::isPassed).containsExactly(true, true, false);
+        assertThat(results.get(2).getErrors()).hasSize(1);
+        assertThat(driver.manage().window().getSize()).isEqualTo(new Dimension(1280, 800));
+        assertThat(driver.getGeometryRequests()).isEqualTo(3);
+    }
+}
@@ -1,17 +1,30 @@
 package rectangles;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.logging.Logs;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class DummyWebDriver implements WebDriver, JavascriptExecutor {
 
-    private final long windowWidth;
-    private final long windowHeight;
+    private long windowWidth;
+    private long windowHeight;
+    private int geometryRequests;
+    private int scriptCalls;
+    private String currentUrl;
+    private List<Object> viewport;
 
     public DummyWebDriver(long windowWidth, long windowHeight) {
         this.windowWidth = windowWidth;
@@ -24,12 +37,12 @@ public class DummyWebDriver implements WebDriver, JavascriptExecutor {
 
     @Override
     public void get(String s) {
-
+        currentUrl = s;
     }
 
     @Override
     public String getCurrentUrl() {
-        return null;
+        return currentUrl;
     }
 
     @Override
@@ -84,11 +97,30 @@ public class DummyWebDriver implements WebDriver, JavascriptExecutor {
 
     @Override
     public Options manage() {
-        return null;
+        return new DummyOptions();
     }
 
     @Override
     public Object executeScript(String s, Object... objects) {
+        scriptCalls++;
+        if (s.contains("getBoundingClientRect")) {
+            geometryRequests++;
+            List<List<Long>> rects = new ArrayList<>();
+            for (Object element : (List) objects[0]) {
+                Rectangle rect = ((WebElement) element).getRect();
+                rects.add(Arrays.asList((long) rect.getX(), (long) rect.getY(), (long) rect.getWidth(), (long) rect.getHeight()));
+            }
+            if (!s.contains("viewport")) {
+                return rects;
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("rects", rects);
+            result.put("viewport", viewport());
+            return result;
+        }
+        if (s.contains("innerWidth")) {
+            return viewport();
+        }
         if (s.toLowerCase().contains("width")) {
             return windowWidth;
         }
@@ -99,8 +131,114 @@ public class DummyWebDriver implements WebDriver, JavascriptExecutor {
         return "100%";
     }
 
+    private List<Object> viewport() {
+        return viewport != null ? viewport : Arrays.asList(windowWidth, windowHeight, "100%");
+    }
+
+    /**
+     * Viewport returned by scripts instead of the window size, e.g. for a page with scrollbars
+     */
+    public void setViewport(long width, long height) {
+        viewport = Arrays.asList(width, height, "100%");
+    }
+
+    public int getGeometryRequests() {
+        return geometryRequests;
+    }
+
+    public int getScriptCalls() {
+        return scriptCalls;
+    }
+
     @Override
     public Object executeAsyncScript(String s, Object... objects) {
         return null;
     }
+
+    private class DummyOptions implements Options {
+
+        @Override
+        public void addCookie(Cookie cookie) {
+
+        }
+
+        @Override
+        public void deleteCookieNamed(String s) {
+
+        }
+
+        @Override
+        public void deleteCookie(Cookie cookie) {
+
+        }
+
+        @Override
+        public void deleteAllCookies() {
+
+        }
+
+        @Override
+        public Set<Cookie> getCookies() {
+            return null;
+        }
+
+        @Override
+        public Cookie getCookieNamed(String s) {
+            return null;
+        }
+
+        @Override
+        public Timeouts timeouts() {
+            return null;
+        }
+
+        @Override
+        public ImeHandler ime() {
+            return null;
+        }
+
+        @Override
+        public Window window() {
+            return new DummyWindow();
+        }
+
+        @Override
+        public Logs logs() {
+            return null;
+        }
+    }
+
+    private class DummyWindow implements Window {
+
+        @Override
+        public void setSize(Dimension dimension) {
+            windowWidth = dimension.getWidth();
+            windowHeight = dimension.getHeight();
+        }
+
+        @Override
+        public void setPosition(Point point) {
+
+        }
+
+        @Override
+        public Dimension getSize() {
+            return new Dimension((int) windowWidth, (int) windowHeight);
+        }
+
+        @Override
+        public Point getPosition() {
+            return null;
+        }
+
+        @Override
+        public void maximize() {
+
+        }
+
+        @Override
+        public void fullscreen() {
+
+        }
+    }
 }
@@ -12,7 +12,7 @@ import java.util.List;
 
 public class DummyWebElement implements WebElement {
 
-    private final Point location;
+    private Point location;
     private final Dimension size;
 
     private DummyWebElement(Point location, Dimension size) {
@@ -100,6 +100,10 @@ public class DummyWebElement implements WebElement {
         return null;
     }
 
+    public void moveTo(int x, int y) {
+        location = new Point(x, y);
+    }
+
     @Override
     public <X> X getScreenshotAs(OutputType<X> outputType) throws WebDriverException {
         return null;
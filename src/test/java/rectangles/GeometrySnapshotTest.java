@@ -0,0 +1,84 @@
+package rectangles;
+
+import org.junit.Test;
+import org.openqa.selenium.WebElement;
+import util.validator.ResponsiveUIValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+import static rectangles.DummyWebElement.createRootElement;
+
+public class GeometrySnapshotTest {
+
+    @Test
+    public void chunkValidationFetchesGeometryOnce() {
+        DummyWebDriver driver = new DummyWebDriver();
+        List<WebElement> elements = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            elements.add(createElement(10, i * 20, 110, i * 20 + 10));
+        }
+
+        boolean valid = new ResponsiveUIValidator(driver).init()
+                .findElements(elements)
+                .sameLeftOffset()
+                .sameRightOffset()
+                .withSameSize()
+                .areNotOverlappedWithEachOther()
+                .validate();
+
+        assertThat(valid).isTrue();
+        assertThat(driver.getGeometryRequests()).isEqualTo(1);
+    }
+
+    @Test
+    public void elementValidationFetchesRootAndComparedElementsInOneRequest() {
+        DummyWebDriver driver = new DummyWebDriver();
+        WebElement root = createRootElement();
+        List<WebElement> others = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            others.add(DummyWebElement.createElementMovedDownByHeightPLus(i * 10));
+        }
+
+        boolean valid = new ResponsiveUIValidator(driver).init()
+                .findElement(root, "Root")
+                .sameOffsetLeftAs(others)
+                .sameWidthAs(others)
+                .validate();
+
+        assertThat(valid).isTrue();
+        assertThat(driver.getGeometryRequests()).isEqualTo(1);
+    }
+
+    @Test
+    public void viewportIsFetchedWithElementGeometry() {
+        DummyWebDriver driver = new DummyWebDriver();
+
+        boolean valid = new ResponsiveUIValidator(driver).init()
+                .findElement(createRootElement(), "Root")
+                .minOffset(0, 0, 0, 0)
+                .validate();
+
+        assertThat(valid).isTrue();
+        assertThat(driver.getScriptCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void percentValuesAreConvertedWithCapturedViewport() {
+        DummyWebDriver driver = new DummyWebDriver();
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(driver);
+
+        assertThat(uiValidator.init()
+                .findElement(createRootElement(), "Root")
+                .changeMetricsUnitsTo(ResponsiveUIValidator.Units.PERCENT)
+                .minWidth(10)
+                .validate()).isTrue();
+        assertThat(uiValidator.init()
+                .findElement(createRootElement(), "Root")
+                .changeMetricsUnitsTo(ResponsiveUIValidator.Units.PERCENT)
+                .minWidth(20)
+                .validate()).isFalse();
+    }
+}
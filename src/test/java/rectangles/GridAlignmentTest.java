@@ -0,0 +1,82 @@
+package rectangles;
+
+import org.junit.Test;
+import org.openqa.selenium.WebElement;
+import util.validator.ResponsiveUIChunkValidator;
+import util.validator.ResponsiveUIValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class GridAlignmentTest {
+
+    @Test
+    public void subPixelDifferencesAreClusteredWithTolerance() {
+        List<WebElement> cells = grid(3, 2, 1);
+
+        assertThat(validator().findElements(cells).alignedAsGrid(3, 2).validate()).isFalse();
+        assertThat(validator().findElements(cells).alignedAsGrid(3, 2, 2).validate()).isTrue();
+    }
+
+    @Test
+    public void shiftedCellIsReported() {
+        List<WebElement> cells = grid(3, 2, 0);
+        cells.remove(4);
+
+        assertThat(validator().findElements(cells).alignedAsGrid(3, 2).validate()).isTrue();
+        assertThat(validator().findElements(cells).alignedAsGrid(3, 2, 0).validate()).isFalse();
+        assertThat(validator().findElements(cells.subList(0, 4)).alignedAsGrid(3, 2, 0).validate()).isTrue();
+    }
+
+    @Test
+    public void unequalGuttersAreReported() {
+        List<WebElement> cells = new ArrayList<>();
+        int[] columnX = {0, 30, 70};
+        for (int row = 0; row < 2; row++) {
+            for (int x : columnX) {
+                cells.add(createElement(x, row * 30, x + 20, row * 30 + 20));
+            }
+        }
+
+        ResponsiveUIChunkValidator grid = validator().findElements(cells).alignedAsGrid(3, 2, 2);
+        assertThat(grid.validate()).isFalse();
+        assertThat(grid.getErrorMessages()).containsExactly("Gutters between columns of a grid are not equal: [10, 20]");
+        assertThat(validator().findElements(cells).alignedAsGrid(3, 2, 2, false).validate()).isTrue();
+        assertThat(validator().findElements(cells).alignedAsGrid(3, 2, 10).validate()).isTrue();
+    }
+
+    @Test
+    public void irregularCellsAreNotReportedWhenDisabled() {
+        List<WebElement> cells = grid(3, 2, 0);
+        cells.remove(4);
+
+        assertThat(validator().findElements(cells).alignedAsGrid(3, 2, 0, false).validate()).isTrue();
+    }
+
+    @Test
+    public void largeGridIsAnalyzed() {
+        List<WebElement> cells = grid(100, 100, 1);
+
+        assertThat(validator().findElements(cells).alignedAsGrid(100, 100, 1).validate()).isTrue();
+        assertThat(validator().findElements(cells).alignedAsGrid(100, 99, 1).validate()).isFalse();
+    }
+
+    private static ResponsiveUIValidator validator() {
+        return new ResponsiveUIValidator(new DummyWebDriver()).init();
+    }
+
+    private static List<WebElement> grid(int columns, int rows, int jitter) {
+        List<WebElement> cells = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int x = column * 30 + (row % 2) * jitter;
+                int y = row * 30 + (column % 2) * jitter;
+                cells.add(createElement(x, y, x + 20, y + 20));
+            }
+        }
+        return cells;
+    }
+}
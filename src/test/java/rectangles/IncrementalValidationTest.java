@@ -0,0 +1,89 @@
+package rectangles;
+
+import org.junit.Test;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+import util.validator.OverlapDetector;
+import util.validator.ResponsiveUIValidator;
+import util.validator.SweepLineOverlapDetector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class IncrementalValidationTest {
+
+    @Test
+    public void unchangedRulesAreCarriedForward() {
+        DummyWebDriver driver = new DummyWebDriver();
+        CountingOverlapDetector detector = new CountingOverlapDetector();
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(driver);
+        uiValidator.setOverlapDetector(detector);
+
+        WebElement menu = createElement(0, 0, 100, 50);
+        WebElement content = createElement(0, 60, 100, 110);
+        List<WebElement> elements = new ArrayList<>();
+        elements.add(menu);
+        elements.add(content);
+
+        ResponsiveUIValidator validator = uiValidator.init()
+                .findElements(elements)
+                .areNotOverlappedWithEachOther();
+
+        assertThat(validator.validate()).isTrue();
+        assertThat(validator.validate()).isTrue();
+        assertThat(detector.calls).isEqualTo(1);
+
+        ((DummyWebElement) menu).moveTo(0, 40);
+        assertThat(validator.validate()).isFalse();
+        assertThat(validator.validate()).isFalse();
+        assertThat(detector.calls).isEqualTo(2);
+
+        ((DummyWebElement) menu).moveTo(0, 0);
+        assertThat(validator.validate()).isTrue();
+        assertThat(detector.calls).isEqualTo(3);
+        assertThat(driver.getGeometryRequests()).isEqualTo(5);
+    }
+
+    @Test
+    public void onlyRulesOfChangedElementsAreReevaluated() {
+        DummyWebDriver driver = new DummyWebDriver();
+        CountingOverlapDetector detector = new CountingOverlapDetector();
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(driver);
+        uiValidator.setOverlapDetector(detector);
+
+        WebElement root = createElement(0, 0, 100, 50);
+        WebElement banner = createElement(0, 60, 100, 110);
+        WebElement footer = createElement(0, 200, 100, 250);
+        List<WebElement> chunk = new ArrayList<>();
+        chunk.add(root);
+        chunk.add(banner);
+
+        ResponsiveUIValidator validator = uiValidator.init()
+                .findElements(chunk)
+                .areNotOverlappedWithEachOther()
+                .sameLeftOffset();
+
+        assertThat(validator.validate()).isTrue();
+        ((DummyWebElement) footer).moveTo(10, 300);
+        assertThat(validator.validate()).isTrue();
+        assertThat(detector.calls).isEqualTo(1);
+
+        ((DummyWebElement) banner).moveTo(10, 60);
+        assertThat(validator.validate()).isFalse();
+        assertThat(detector.calls).isEqualTo(2);
+    }
+
+    private static class CountingOverlapDetector implements OverlapDetector {
+        private final OverlapDetector delegate = new SweepLineOverlapDetector();
+        private int calls;
+
+        @Override
+        public List<int[]> findOverlappingPairs(List<Rectangle> rectangles) {
+            calls++;
+            return delegate.findOverlappingPairs(rectangles);
+        }
+    }
+}
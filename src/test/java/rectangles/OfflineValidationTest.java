@@ -0,0 +1,69 @@
+package rectangles;
+
+import org.junit.Before;
+import org.junit.Test;
+import util.validator.PageGeometry;
+import util.validator.ResponsiveUIValidator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OfflineValidationTest {
+
+    private PageGeometry page;
+
+    @Before
+    public void setUp() throws Exception {
+        page = PageGeometry.fromJson("{\"viewport\": {\"width\": 1200, \"height\": 800}, \"elements\": {" +
+                "\"container\": {\"x\": 100, \"y\": 0, \"width\": 1000, \"height\": 800}," +
+                "\"card1\": {\"x\": 120, \"y\": 20, \"width\": 300, \"height\": 200}," +
+                "\"card2\": {\"x\": 440, \"y\": 20, \"width\": 300, \"height\": 200}," +
+                "\"card3\": {\"x\": 760, \"y\": 21, \"width\": 300, \"height\": 200}}}");
+    }
+
+    @Test
+    public void validatesElementAgainstCapturedGeometry() {
+        ResponsiveUIValidator uiValidator = page.validator();
+
+        assertThat(uiValidator.init()
+                .findElement(page.element("container"), "Container")
+                .equalLeftRightOffset()
+                .widthBetween(900, 1100)
+                .validate()).isTrue();
+
+        assertThat(uiValidator.init()
+                .findElement(page.element("card1"), "Card")
+                .sameSizeAs(page.elements("card2", "card3"))
+                .insideOf(page.element("container"), "Container")
+                .withRightElement(page.element("card2"), 10, 30)
+                .validate()).isTrue();
+
+        assertThat(uiValidator.init()
+                .findElement(page.element("card1"), "Card")
+                .sameOffsetTopAs(page.element("card3"), "Card 3")
+                .validate()).isFalse();
+    }
+
+    @Test
+    public void validatesChunkAgainstCapturedGeometry() {
+        assertThat(page.validator().init()
+                .findElements(page.elements("card1", "card2", "card3"))
+                .withSameSize()
+                .areNotOverlappedWithEachOther()
+                .insideOf(page.element("container"), "Container")
+                .validate()).isTrue();
+
+        assertThat(page.validator().init()
+                .findElements(page.elements("card1", "card2", "card3"))
+                .sameTopOffset()
+                .validate()).isFalse();
+    }
+
+    @Test
+    public void geometrySurvivesJsonRoundTrip() throws Exception {
+        PageGeometry copy = PageGeometry.fromJson(page.toJson());
+
+        assertThat(copy.getViewportWidth()).isEqualTo(1200);
+        assertThat(copy.elementNames()).containsOnly("container", "card1", "card2", "card3");
+        assertThat(copy.element("card3").getRect()).isEqualTo(page.element("card3").getRect());
+    }
+}
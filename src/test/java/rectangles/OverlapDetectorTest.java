@@ -0,0 +1,99 @@
+package rectangles;
+
+import org.junit.Test;
+import org.openqa.selenium.Rectangle;
+import util.validator.SweepLineOverlapDetector;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OverlapDetectorTest {
+
+    @Test
+    public void findsSamePairsAsPairwiseComparison() {
+        Random random = new Random(42);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            rectangles.add(new Rectangle(random.nextInt(2000) - 100, random.nextInt(2000) - 100, random.nextInt(120), random.nextInt(120)));
+        }
+
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < rectangles.size(); i++) {
+            for (int j = i + 1; j < rectangles.size(); j++) {
+                if (awtRectangle(rectangles.get(i)).intersects(awtRectangle(rectangles.get(j)))) {
+                    expected.add(i + ":" + j);
+                }
+            }
+        }
+
+        Set<String> actual = new HashSet<>();
+        for (int[] pair : new SweepLineOverlapDetector().findOverlappingPairs(rectangles)) {
+            actual.add(pair[0] + ":" + pair[1]);
+        }
+
+        assertThat(expected).isNotEmpty();
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void touchingRectanglesDoNotOverlap() {
+        List<Rectangle> rectangles = new ArrayList<>();
+        rectangles.add(new Rectangle(0, 0, 100, 100));
+        rectangles.add(new Rectangle(100, 0, 100, 100));
+        rectangles.add(new Rectangle(0, 100, 100, 100));
+
+        assertThat(new SweepLineOverlapDetector().findOverlappingPairs(rectangles)).isEmpty();
+    }
+
+    @Test
+    public void findsSamePairsAsPairwiseComparisonOnSharedEdges() {
+        Random random = new Random(7);
+        List<Rectangle> rectangles = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            rectangles.add(new Rectangle(random.nextInt(20) * 10, random.nextInt(20) * 10, random.nextInt(4) * 10, random.nextInt(4) * 10));
+        }
+
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < rectangles.size(); i++) {
+            for (int j = i + 1; j < rectangles.size(); j++) {
+                if (awtRectangle(rectangles.get(i)).intersects(awtRectangle(rectangles.get(j)))) {
+                    expected.add(i + ":" + j);
+                }
+            }
+        }
+
+        Set<String> actual = new HashSet<>();
+        for (int[] pair : new SweepLineOverlapDetector().findOverlappingPairs(rectangles)) {
+            assertThat(actual.add(pair[0] + ":" + pair[1])).isTrue();
+        }
+
+        assertThat(expected).isNotEmpty();
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test(timeout = 3000)
+    public void rectanglesStackedInOneColumnAreNotComparedPairwise() {
+        int size = 200000;
+        List<Rectangle> rectangles = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rectangles.add(new Rectangle(0, i * 10, 15, 100));
+        }
+
+        List<int[]> pairs = new SweepLineOverlapDetector().findOverlappingPairs(rectangles);
+
+        assertThat(pairs).hasSize(size - 1);
+        for (int[] pair : pairs) {
+            assertThat(pair[1]).isEqualTo(pair[0] + 1);
+        }
+    }
+
+    private Rectangle2D.Double awtRectangle(Rectangle rectangle) {
+        return new Rectangle2D.Double(rectangle.getX(), rectangle.getY(), rectangle.getWidth(), rectangle.getHeight());
+    }
+}
@@ -0,0 +1,42 @@
+package rectangles;
+
+import org.junit.Test;
+import org.openqa.selenium.WebElement;
+import util.validator.ResponsiveUIValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+
+public class ParallelEvaluationTest {
+
+    @Test
+    public void parallelEvaluationReportsSameErrorsAsSerial() {
+        Random random = new Random(7);
+        List<WebElement> elements = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(3) * 10;
+            int width = 100 + random.nextInt(2);
+            elements.add(createElement(x, i * 20, x + width, i * 20 + 10));
+        }
+
+        assertThat(report(elements, true)).isEqualTo(report(elements, false)).isNotEmpty();
+    }
+
+    private static List<String> report(List<WebElement> elements, boolean parallel) {
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new DummyWebDriver());
+        uiValidator.setParallelEvaluation(parallel);
+        ResponsiveUIValidator validator = uiValidator.init()
+                .findElements(elements)
+                .sameLeftOffset()
+                .withSameWidth()
+                .withNotSameHeight()
+                .equalLeftRightOffset()
+                .insideOf(createElement(0, 0, 120, 30000), "Container");
+        assertThat(validator.validate()).isFalse();
+        return validator.getErrorMessages();
+    }
+}
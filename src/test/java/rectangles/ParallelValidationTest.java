@@ -0,0 +1,52 @@
+package rectangles;
+
+import org.junit.Test;
+import org.openqa.selenium.WebElement;
+import util.validator.ResponsiveUIValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElementMovedRightBy;
+import static rectangles.DummyWebElement.createRootElement;
+
+public class ParallelValidationTest {
+
+    @Test
+    public void validatorsOfDifferentDriversDoNotShareState() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                boolean aligned = i % 2 == 0;
+                results.add(executor.submit(validation(aligned)));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(i % 2 == 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<Boolean> validation(boolean aligned) {
+        return () -> {
+            ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new DummyWebDriver());
+            WebElement root = createRootElement();
+            WebElement other = createElementMovedRightBy(aligned ? 0 : 5);
+            for (int i = 0; i < 20; i++) {
+                uiValidator.init("Parallel").findElement(root, "Root").sameOffsetLeftAs(other, "Other");
+            }
+            return uiValidator.init("Parallel")
+                    .findElement(root, "Root")
+                    .sameOffsetLeftAs(other, "Other")
+                    .validate();
+        };
+    }
+}
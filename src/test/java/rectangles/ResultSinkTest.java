@@ -0,0 +1,219 @@
+package rectangles;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import util.validator.BinaryResultSink;
+import util.validator.JsonLinesResultSink;
+import util.validator.ReportCollector;
+import util.validator.ResponsiveUIValidator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+import static util.validator.Constants.*;
+
+public class ResultSinkTest {
+
+    private static final String[] REPORT_PREFIXES = {"JsonLines-", "CurrentRun-", "Binary-", "Shared-", "Scenarios-"};
+    private static final String[] RESULT_FOLDERS = {"jsonl-test", "binary-test", "order-test"};
+
+    @After
+    public void deleteResultsAndReports() {
+        for (String folder : RESULT_FOLDERS) {
+            FileUtils.deleteQuietly(new File(TARGET_AUTOMOTION + folder));
+        }
+        for (String prefix : REPORT_PREFIXES) {
+            File[] reports = new File(TARGET_AUTOMOTION).listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".html"));
+            if (reports != null) {
+                for (File report : reports) {
+                    FileUtils.deleteQuietly(report);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void resultsAreReadInOrderOfReferences() throws IOException {
+        JsonLinesResultSink sink = new JsonLinesResultSink(new File(TARGET_AUTOMOTION + "order-test"), 2);
+        List<String> references = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            JSONObject result = new JSONObject();
+            result.put(SCENARIO, "Order " + i);
+            references.add(sink.write("Order", result));
+        }
+        Collections.reverse(references);
+
+        List<Object> scenarios = new ArrayList<>();
+        sink.read(references, result -> scenarios.add(result.get(SCENARIO)));
+
+        assertThat(scenarios).containsExactly("Order 4", "Order 3", "Order 2", "Order 1", "Order 0");
+    }
+
+    @Test
+    public void jsonLinesResultsAreAppendedToOneFileAndReported() throws IOException {
+        File folder = new File(TARGET_AUTOMOTION + "jsonl-test");
+        FileUtils.deleteQuietly(folder);
+
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new DummyWebDriver(), new ReportCollector(new JsonLinesResultSink(folder, 4)));
+        for (int i = 0; i < 10; i++) {
+            assertThat(uiValidator.init("Json Lines " + i)
+                    .findElement(createElement(10, 10, 110, 60), "Json Lines Element")
+                    .minWidth(200)
+                    .drawMap()
+                    .validate()).isFalse();
+        }
+        File[] files = folder.listFiles();
+        assertThat(files).hasSize(1);
+        assertThat(FileUtils.readLines(files[0], StandardCharsets.UTF_8)).hasSize(8);
+
+        uiValidator.generateReport("JsonLines");
+        File[] reports = new File(TARGET_AUTOMOTION).listFiles((dir, name) -> name.startsWith("JsonLines-") && name.endsWith(".html"));
+        assertThat(reports).isNotEmpty();
+        File report = reports[0];
+        for (File file : reports) {
+            if (file.lastModified() > report.lastModified()) {
+                report = file;
+            }
+        }
+        String html = FileUtils.readFileToString(report, StandardCharsets.UTF_8);
+        for (int i = 0; i < 10; i++) {
+            assertThat(html).contains("Json Lines " + i + "&quot;");
+        }
+        assertThat(html.indexOf("Json Lines 3&quot;")).isLessThan(html.indexOf("Json Lines 7&quot;"));
+        assertThat(deleted(folder)).isTrue();
+    }
+
+    @Test
+    public void reportContainsOnlyResultsOfThisRun() throws IOException {
+        File stale = new File(TARGET_AUTOMOTION_JSON + "Stale-automotion.json");
+        FileUtils.writeStringToFile(stale, "{\"scenario\":\"Stale scenario\",\"details\":[]}", StandardCharsets.UTF_8);
+
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new DummyWebDriver(), new ReportCollector());
+        assertThat(uiValidator.init("Current run")
+                .findElement(createElement(10, 10, 110, 60), "Current Element")
+                .minWidth(200)
+                .drawMap()
+                .validate()).isFalse();
+        uiValidator.generateReport("CurrentRun");
+
+        File[] reports = new File(TARGET_AUTOMOTION).listFiles((dir, name) -> name.startsWith("CurrentRun-") && name.endsWith(".html"));
+        assertThat(reports).hasSize(1);
+        String html = FileUtils.readFileToString(reports[0], StandardCharsets.UTF_8);
+        assertThat(html).contains("Current run").doesNotContain("Stale scenario");
+        assertThat(stale).exists();
+        assertThat(deleted(new File(TARGET_AUTOMOTION_JSON), "CurrentElement-automotion")).isTrue();
+        FileUtils.deleteQuietly(reports[0]);
+        FileUtils.deleteQuietly(stale);
+    }
+
+    @Test
+    public void validatorsWithoutOwnCollectorShareOneReport() throws IOException {
+        ResponsiveUIValidator first = new ResponsiveUIValidator(new DummyWebDriver());
+        ResponsiveUIValidator second = new ResponsiveUIValidator(new DummyWebDriver());
+        assertThat(failingValidation(first.init("Shared first"), "Shared First Element")).isFalse();
+        assertThat(failingValidation(second.init("Shared second"), "Shared Second Element")).isFalse();
+
+        first.generateReport("Shared");
+
+        assertThat(report("Shared-")).contains("Shared first&quot;").contains("Shared second&quot;");
+        assertThat(deleted(new File(TARGET_AUTOMOTION_JSON), "SharedFirstElement-automotion")).isTrue();
+        assertThat(deleted(new File(TARGET_AUTOMOTION_JSON), "SharedSecondElement-automotion")).isTrue();
+    }
+
+    @Test
+    public void scenarioNameIsNotPassedToNextValidation() throws IOException {
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new DummyWebDriver(), new ReportCollector());
+        assertThat(failingValidation(uiValidator.init("Named scenario"), "Named Element")).isFalse();
+        assertThat(failingValidation(uiValidator.init(), "Unnamed Element")).isFalse();
+
+        uiValidator.generateReport("Scenarios");
+
+        String html = report("Scenarios-");
+        assertThat(html).contains("Named scenario&quot;").contains("Default&quot;");
+        assertThat(html.split("Named scenario&quot;", -1)).hasSize(2);
+    }
+
+    private static boolean failingValidation(ResponsiveUIValidator validator, String elementName) {
+        return validator.findElement(createElement(10, 10, 110, 60), elementName)
+                .minWidth(200)
+                .drawMap()
+                .validate();
+    }
+
+    private static String report(String prefix) throws IOException {
+        File[] reports = new File(TARGET_AUTOMOTION).listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".html"));
+        assertThat(reports).hasSize(1);
+        return FileUtils.readFileToString(reports[0], StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void binaryResultsCanBeScannedAndReported() throws IOException {
+        File folder = new File(TARGET_AUTOMOTION + "binary-test");
+        FileUtils.deleteQuietly(folder);
+
+        BinaryResultSink sink = new BinaryResultSink(folder, 2);
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new DummyWebDriver(), new ReportCollector(sink));
+        for (int i = 0; i < 3; i++) {
+            assertThat(uiValidator.init("Binary " + i)
+                    .findElement(createElement(10, 10, 110, 60), "Binary Element " + i)
+                    .minWidth(200)
+                    .drawMap()
+                    .validate()).isFalse();
+        }
+        sink.flush();
+
+        File[] files = folder.listFiles();
+        assertThat(files).hasSize(1);
+        List<JSONObject> results = new ArrayList<>();
+        BinaryResultSink.scan(files[0], results::add);
+        assertThat(results).hasSize(3);
+        JSONObject result = results.get(1);
+        assertThat(result.get(SCENARIO)).isEqualTo("Binary 1");
+        assertThat(result.get(ELEMENT_NAME)).isEqualTo("Binary Element 1");
+        assertThat(result.get(ERROR_KEY)).isEqualTo(true);
+        assertThat(((JSONObject) result.get(ROOT_ELEMENT)).get(WIDTH)).isEqualTo(100);
+        JSONObject reason = (JSONObject) ((JSONObject) ((JSONArray) result.get(DETAILS)).get(0)).get(REASON);
+        assertThat((String) reason.get(MESSAGE)).contains("Expected min width of element 'Binary Element 1' is: 200px");
+
+        uiValidator.generateReport("Binary");
+        File[] reports = new File(TARGET_AUTOMOTION).listFiles((dir, name) -> name.startsWith("Binary-") && name.endsWith(".html"));
+        assertThat(reports).hasSize(1);
+        String html = FileUtils.readFileToString(reports[0], StandardCharsets.UTF_8);
+        assertThat(html).contains("Binary 0").contains("Binary 2").contains("Expected min width of element &#39;Binary Element 2&#39;");
+        FileUtils.deleteQuietly(reports[0]);
+        assertThat(deleted(folder)).isTrue();
+    }
+
+    private static boolean deleted(File folder) {
+        return deleted(folder, "");
+    }
+
+    /**
+     * Result files are deleted in background after the report is written
+     */
+    private static boolean deleted(File folder, String prefix) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            File[] files = folder.listFiles((dir, name) -> name.startsWith(prefix));
+            if (files == null || files.length == 0) {
+                return true;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+package rectangles;
+
+import com.google.common.hash.Hashing;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriverException;
+import util.validator.ResponsiveUIValidator;
+import util.validator.ScreenshotPipeline;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+import static util.validator.Constants.TARGET_AUTOMOTION;
+import static util.validator.Constants.TARGET_AUTOMOTION_IMG;
+
+public class ScreenshotDeduplicationTest {
+
+    @Test
+    public void identicalScreenshotsAreStoredOnce() throws InterruptedException, IOException {
+        byte[] png = png(640, 480, 0x336699);
+        File stored = new File(TARGET_AUTOMOTION_IMG + Hashing.sha256().hashBytes(png) + ".png");
+        FileUtils.deleteQuietly(stored);
+
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new StaticScreenshotWebDriver(png));
+        uiValidator.setScreenshotDeduplication(true);
+        for (int i = 0; i < 5; i++) {
+            assertThat(uiValidator.init("Deduplication " + i)
+                    .findElement(createElement(10, 10 + i * 50, 110, 60 + i * 50), "Deduplicated Element " + i)
+                    .minWidth(200)
+                    .drawMap()
+                    .validate()).isFalse();
+        }
+        assertThat(ScreenshotPipeline.awaitCompletion(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(stored).exists();
+        assertThat(new File(TARGET_AUTOMOTION_IMG).listFiles((dir, name) -> name.startsWith("DeduplicatedElement"))).isEmpty();
+
+        uiValidator.generateReport("Deduplication");
+        File[] reports = new File(TARGET_AUTOMOTION).listFiles((dir, name) -> name.startsWith("Deduplication-") && name.endsWith(".html"));
+        assertThat(reports).isNotEmpty();
+        File report = reports[0];
+        for (File file : reports) {
+            if (file.lastModified() > report.lastModified()) {
+                report = file;
+            }
+        }
+        String html = FileUtils.readFileToString(report, StandardCharsets.UTF_8);
+        assertThat(html).contains(stored.getName()).contains("position: absolute");
+    }
+
+    @Test
+    public void offsetLinesAreDrawnOverDeduplicatedScreenshot() throws IOException {
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new StaticScreenshotWebDriver(png(640, 480, 0x996633)));
+        uiValidator.setScreenshotDeduplication(true);
+        assertThat(uiValidator.init("Deduplicated offset lines")
+                .findElement(createElement(10, 10, 110, 60), "Offset Root")
+                .sameOffsetLeftAs(createElement(40, 100, 140, 150), "Shifted Element")
+                .drawMap()
+                .validate()).isFalse();
+
+        uiValidator.generateReport("DeduplicationLines");
+        File[] reports = new File(TARGET_AUTOMOTION).listFiles((dir, name) -> name.startsWith("DeduplicationLines-") && name.endsWith(".html"));
+        assertThat(reports).hasSize(1);
+        String html = FileUtils.readFileToString(reports[0], StandardCharsets.UTF_8);
+        assertThat(html).contains("border-left: 1px dashed rgba(255,200,0,1.00); left: 1.563%");
+        FileUtils.deleteQuietly(reports[0]);
+    }
+
+    private static byte[] png(int width, int height, int rgb) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            image.setRGB(x, x * height / width, rgb);
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    private static class StaticScreenshotWebDriver extends DummyWebDriver implements TakesScreenshot {
+        private final byte[] png;
+
+        StaticScreenshotWebDriver(byte[] png) {
+            this.png = png;
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> outputType) throws WebDriverException {
+            return outputType.convertFromPngBytes(png);
+        }
+    }
+}
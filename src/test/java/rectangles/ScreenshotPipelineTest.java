@@ -0,0 +1,150 @@
+package rectangles;
+
+import org.junit.Test;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriverException;
+import util.validator.ReportCollector;
+import util.validator.ResponsiveUIValidator;
+import util.validator.ScreenshotPipeline;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rectangles.DummyWebElement.createElement;
+import static util.validator.Constants.TARGET_AUTOMOTION_IMG;
+
+public class ScreenshotPipelineTest {
+
+    private static final int VALIDATIONS = 20;
+
+    @Test
+    public void screenshotsAreAnnotatedInBackground() throws InterruptedException {
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new ScreenshotWebDriver());
+        for (int i = 0; i < VALIDATIONS; i++) {
+            deleteScreenshots(i);
+            assertThat(uiValidator.init("Pipeline " + i)
+                    .findElement(createElement(10, 10, 110, 60), "Pipeline Element " + i)
+                    .minWidth(200)
+                    .drawMap()
+                    .validate()).isFalse();
+        }
+
+        assertThat(ScreenshotPipeline.awaitCompletion(1, TimeUnit.MINUTES)).isTrue();
+        for (int i = 0; i < VALIDATIONS; i++) {
+            assertThat(screenshots(i)).hasSize(1);
+            assertThat(screenshots(i)[0].length()).isGreaterThan(0);
+        }
+    }
+
+    @Test
+    public void reportCollectorWaitsForScreenshotsOfItsValidations() throws InterruptedException, IOException {
+        deleteScreenshots("CollectedElement-");
+        ReportCollector collector = new ReportCollector();
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new ScreenshotWebDriver(), collector);
+
+        assertThat(uiValidator.init("Collected")
+                .findElement(createElement(10, 10, 110, 60), "Collected Element")
+                .minWidth(200)
+                .drawMap()
+                .validate()).isFalse();
+
+        assertThat(collector.awaitPending(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(size(screenshot("CollectedElement-", ".png"))).containsExactly(400, 300);
+    }
+
+    @Test
+    public void croppedEvidenceAndThumbnailAreStoredWithoutFullScreenshot() throws InterruptedException, IOException {
+        deleteScreenshots("CroppedElement-");
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new ScreenshotWebDriver());
+        uiValidator.setScreenshotCropMargin(10);
+        uiValidator.setScreenshotThumbnailWidth(200);
+
+        assertThat(uiValidator.init("Cropped")
+                .findElement(createElement(10, 10, 110, 60), "Cropped Element")
+                .minWidth(200)
+                .drawMap()
+                .validate()).isFalse();
+
+        assertThat(ScreenshotPipeline.awaitCompletion(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(new File(TARGET_AUTOMOTION_IMG).list((dir, name) -> name.startsWith("CroppedElement-"))).hasSize(2);
+        assertThat(size(screenshot("CroppedElement-", "-crop.png"))).containsExactly(120, 70);
+        assertThat(size(screenshot("CroppedElement-", "-thumb.png"))).containsExactly(200, 150);
+    }
+
+    @Test
+    public void fullScreenshotIsStoredWithEvidenceWhenEnabled() throws InterruptedException, IOException {
+        deleteScreenshots("FullElement-");
+        ResponsiveUIValidator uiValidator = new ResponsiveUIValidator(new ScreenshotWebDriver());
+        uiValidator.setScreenshotCropMargin(10);
+        uiValidator.setFullScreenshotWithEvidence(true);
+
+        assertThat(uiValidator.init("Full")
+                .findElement(createElement(10, 10, 110, 60), "Full Element")
+                .minWidth(200)
+                .drawMap()
+                .validate()).isFalse();
+
+        assertThat(ScreenshotPipeline.awaitCompletion(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(size(screenshot("FullElement-", ".png", "-crop.png", "-thumb.png"))).containsExactly(400, 300);
+        assertThat(size(screenshot("FullElement-", "-crop.png"))).containsExactly(120, 70);
+        assertThat(size(screenshot("FullElement-", "-thumb.png"))).containsExactly(320, 240);
+    }
+
+    private static int[] size(File file) throws IOException {
+        BufferedImage image = ImageIO.read(file);
+        return new int[]{image.getWidth(), image.getHeight()};
+    }
+
+    private static File screenshot(String prefix, String suffix, String... excludedSuffixes) {
+        File[] files = new File(TARGET_AUTOMOTION_IMG).listFiles((dir, name) -> {
+            for (String excluded : excludedSuffixes) {
+                if (name.endsWith(excluded)) {
+                    return false;
+                }
+            }
+            return name.startsWith(prefix) && name.endsWith(suffix);
+        });
+        assertThat(files).hasSize(1);
+        return files[0];
+    }
+
+    private static File[] screenshots(int validation) {
+        File[] files = new File(TARGET_AUTOMOTION_IMG).listFiles((dir, name) -> name.startsWith("PipelineElement" + validation + "-"));
+        return files != null ? files : new File[0];
+    }
+
+    private static void deleteScreenshots(int validation) {
+        for (File file : screenshots(validation)) {
+            assertThat(file.delete()).isTrue();
+        }
+    }
+
+    private static void deleteScreenshots(String prefix) {
+        File[] files = new File(TARGET_AUTOMOTION_IMG).listFiles((dir, name) -> name.startsWith(prefix));
+        if (files != null) {
+            for (File file : files) {
+                assertThat(file.delete()).isTrue();
+            }
+        }
+    }
+
+    private static class ScreenshotWebDriver extends DummyWebDriver implements TakesScreenshot {
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> outputType) throws WebDriverException {
+            try {
+                ByteArrayOutputStream png = new ByteArrayOutputStream();
+                ImageIO.write(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), "png", png);
+                return outputType.convertFromPngBytes(png.toByteArray());
+            } catch (IOException e) {
+                throw new WebDriverException(e);
+            }
+        }
+    }
+}
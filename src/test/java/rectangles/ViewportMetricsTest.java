@@ -0,0 +1,69 @@
+package rectangles;
+
+import environment.EnvironmentConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Dimension;
+import util.validator.ResponsiveUIValidator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static rectangles.DummyWebElement.createRootElement;
+
+public class ViewportMetricsTest {
+
+    private DummyWebDriver driver;
+
+    @Before
+    public void useMobileWebContext() {
+        assumeTrue(System.getenv(EnvironmentConstants.IS_MOBILE) == null && System.getenv(EnvironmentConstants.PLATFORM) == null);
+        System.setProperty(EnvironmentConstants.IS_MOBILE, "true");
+        System.setProperty(EnvironmentConstants.PLATFORM, "Android");
+        driver = new DummyWebDriver();
+        driver.get("http://localhost/first");
+    }
+
+    @After
+    public void restoreDesktop() {
+        System.clearProperty(EnvironmentConstants.IS_MOBILE);
+        System.clearProperty(EnvironmentConstants.PLATFORM);
+    }
+
+    @Test
+    public void metricsAreReusedOnSamePage() {
+        assertThat(hasMinWidthOfTenPercent()).isTrue();
+        int firstCalls = driver.getScriptCalls();
+
+        assertThat(hasMinWidthOfTenPercent()).isTrue();
+
+        assertThat(driver.getScriptCalls() - firstCalls).isEqualTo(firstCalls - 1);
+    }
+
+    @Test
+    public void metricsAreFetchedAgainAfterNavigation() {
+        assertThat(hasMinWidthOfTenPercent()).isTrue();
+
+        driver.setViewport(RectangleFixture.windowWidth * 2, RectangleFixture.windowHeight);
+        driver.get("http://localhost/second");
+
+        assertThat(hasMinWidthOfTenPercent()).isFalse();
+    }
+
+    @Test
+    public void metricsAreFetchedAgainAfterRotation() {
+        assertThat(hasMinWidthOfTenPercent()).isTrue();
+
+        driver.manage().window().setSize(new Dimension((int) RectangleFixture.windowWidth * 2, (int) RectangleFixture.windowHeight));
+
+        assertThat(hasMinWidthOfTenPercent()).isFalse();
+    }
+
+    private boolean hasMinWidthOfTenPercent() {
+        return new ResponsiveUIValidator(driver).init()
+                .findElement(createRootElement(), "Root")
+                .changeMetricsUnitsTo(ResponsiveUIValidator.Units.PERCENT)
+                .minWidth(10)
+                .validate();
+    }
+}